@@ -0,0 +1,202 @@
+package com.ericversteeg;
+
+import com.google.gson.Gson;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Scopes;
+import net.runelite.api.Client;
+import net.runelite.api.InventoryID;
+import net.runelite.api.Item;
+import net.runelite.api.ItemComposition;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.Point;
+import net.runelite.api.widgets.ComponentID;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.config.ConfigManager;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.input.KeyManager;
+import net.runelite.client.ui.overlay.OverlayManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// stub client and item manager for the benchmarks: a full inventory, worn equipment and fixed prices
+// the plugin and overlay are injected the same way RuneLite does it, with everything else mocked
+class InventoryTotalBenchmarkFixtures
+{
+	// coins, food, potions, noted loot and runes
+	static final int[] INVENTORY_IDS = {
+			995, 385, 385, 385, 385, 385, 385, 2434, 2434, 2434, 2434, 3024, 3024, 12695,
+			386, 2364, 1514, 208, 220, 5295, 560, 565, 561, 9075, 11212, 536, 537, 1392
+	};
+	static final int[] INVENTORY_QTYS = {
+			1234567, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1,
+			150, 45, 220, 38, 17, 9, 1200, 800, 2500, 1500, 300, 1, 120, 12
+	};
+
+	// head, cape, neck, weapon, body, shield, legs, hands, feet, ring, ammo
+	static final int[] EQUIPMENT_IDS = {
+			10828, 6570, 6585, 4151, -1, 11283, 1127, -1, 1079, -1, 7462, 11840, -1, 6737, 892
+	};
+	static final int[] EQUIPMENT_QTYS = {
+			1, 1, 1, 1, 0, 1, 1, 0, 1, 0, 1, 1, 0, 1, 500
+	};
+
+	private static final int[] NOTED_IDS = {386, 2364, 1514, 208, 220, 537};
+
+	final Client client = mock(Client.class);
+	final ItemManager itemManager = mock(ItemManager.class);
+	final ItemContainer inventory = mock(ItemContainer.class);
+	final ItemContainer equipment = mock(ItemContainer.class);
+	final Widget inventoryWidget = mock(Widget.class);
+
+	final Item[] inventoryItems = items(INVENTORY_IDS, INVENTORY_QTYS);
+	final Item[] equipmentItems = items(EQUIPMENT_IDS, EQUIPMENT_QTYS);
+
+	final InventoryTotalPlugin plugin;
+	final InventoryTotalOverlay overlay;
+
+	private final Map<Integer, ItemComposition> compositions = new HashMap<>();
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+	InventoryTotalBenchmarkFixtures(InventoryTotalConfig config) throws Exception
+	{
+		when(itemManager.getItemComposition(anyInt())).thenAnswer(i -> getComposition(i.getArgument(0)));
+		when(itemManager.getItemPrice(anyInt())).thenAnswer(i -> getPrice(i.getArgument(0)));
+
+		when(inventory.getItems()).thenAnswer(i -> inventoryItems);
+		when(equipment.getItems()).thenAnswer(i -> equipmentItems);
+		when(inventory.getId()).thenReturn(InventoryID.INVENTORY.getId());
+		when(equipment.getId()).thenReturn(InventoryID.EQUIPMENT.getId());
+		when(client.getItemContainer(InventoryID.INVENTORY)).thenReturn(inventory);
+		when(client.getItemContainer(InventoryID.EQUIPMENT)).thenReturn(equipment);
+
+		when(inventoryWidget.getCanvasLocation()).thenReturn(new Point(550, 205));
+		when(inventoryWidget.getWidth()).thenReturn(190);
+		when(inventoryWidget.getHeight()).thenReturn(261);
+		when(client.getWidget(ComponentID.INVENTORY_CONTAINER)).thenReturn(inventoryWidget);
+		when(client.getMouseCanvasPosition()).thenReturn(new Point(0, 0));
+
+		Injector injector = createInjector(client, itemManager, mock(ConfigManager.class), config, executor);
+
+		plugin = injector.getInstance(InventoryTotalPlugin.class);
+		overlay = injector.getInstance(InventoryTotalOverlay.class);
+
+		plugin.startUp();
+		plugin.recomputeTotals(false);
+	}
+
+	// everything here already runs on the one thread, so work handed to the client thread runs straight away
+	static ClientThread createClientThread()
+	{
+		ClientThread clientThread = mock(ClientThread.class);
+		doAnswer(invocation ->
+		{
+			((Runnable) invocation.getArgument(0)).run();
+			return null;
+		}).when(clientThread).invokeLater(any(Runnable.class));
+		return clientThread;
+	}
+
+	// the plugin and overlay are singletons like when RuneLite loads the plugin, the other services are mocked
+	static Injector createInjector(Client client, ItemManager itemManager, ConfigManager configManager,
+								   InventoryTotalConfig config, ScheduledExecutorService executor)
+	{
+		return Guice.createInjector(binder ->
+		{
+			binder.bind(Client.class).toInstance(client);
+			binder.bind(ItemManager.class).toInstance(itemManager);
+			binder.bind(InventoryTotalConfig.class).toInstance(config);
+			binder.bind(ClientThread.class).toInstance(createClientThread());
+			binder.bind(ConfigManager.class).toInstance(configManager);
+			binder.bind(OverlayManager.class).toInstance(mock(OverlayManager.class));
+			binder.bind(KeyManager.class).toInstance(mock(KeyManager.class));
+			binder.bind(ScheduledExecutorService.class).toInstance(executor);
+			binder.bind(Gson.class).toInstance(new Gson());
+			binder.bind(InventoryTotalPlugin.class).in(Scopes.SINGLETON);
+			binder.bind(InventoryTotalOverlay.class).in(Scopes.SINGLETON);
+		});
+	}
+
+	// starts a run with the fixture inventory, then swaps some of it for loot so the run has gains and losses
+	void startRunWithLoot()
+	{
+		plugin.postNewRun();
+
+		setInventorySlot(1, 11286, 1);
+		setInventorySlot(2, 1392, 1);
+		setInventorySlot(7, 229, 1);
+		setInventorySlot(15, 2364, 75);
+		setInventorySlot(20, 560, 900);
+
+		plugin.recomputeTotals(false);
+	}
+
+	void setInventorySlot(int slot, int itemId, int qty)
+	{
+		inventoryItems[slot] = new Item(itemId, qty);
+	}
+
+	void shutDown() throws Exception
+	{
+		plugin.shutDown();
+		executor.shutdownNow();
+	}
+
+	private ItemComposition getComposition(int itemId)
+	{
+		return compositions.computeIfAbsent(itemId, id ->
+		{
+			ItemComposition composition = mock(ItemComposition.class);
+			boolean isNoted = isNoted(id);
+			when(composition.getNote()).thenReturn(isNoted ? 799 : -1);
+			when(composition.getLinkedNoteId()).thenReturn(isNoted ? id - 1 : id + 1);
+			when(composition.getHaPrice()).thenReturn(getPrice(id) * 3 / 5);
+			when(composition.getName()).thenReturn("Item " + id);
+			return composition;
+		});
+	}
+
+	private static int getPrice(int itemId)
+	{
+		if (itemId == InventoryTotalPlugin.COINS)
+		{
+			return 1;
+		}
+
+		// stable made up prices between 1 and ~2M
+		int hash = itemId * 0x9E3779B1;
+		return 1 + ((hash >>> 8) % 2000000);
+	}
+
+	private static boolean isNoted(int itemId)
+	{
+		for (int notedId: NOTED_IDS)
+		{
+			if (notedId == itemId)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Item[] items(int[] ids, int[] qtys)
+	{
+		Item[] items = new Item[ids.length];
+		for (int i = 0; i < ids.length; i++)
+		{
+			items[i] = new Item(ids[i], qtys[i]);
+		}
+		return items;
+	}
+}
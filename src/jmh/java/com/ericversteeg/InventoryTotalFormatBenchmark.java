@@ -0,0 +1,55 @@
+package com.ericversteeg;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// gp and run time text, for a value that stays the same between frames and for one that changes every call
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InventoryTotalFormatBenchmark
+{
+	private static final long[] VALUES = {
+			0, 999, 1234, -56789, 1234567, 98765432, -1500000, 2147483647L, 12345678901L, 4200
+	};
+
+	private final InventoryTotalTextFormatter textFormatter = new InventoryTotalTextFormatter();
+	private int index = 0;
+
+	@Benchmark
+	public String formatGpSame()
+	{
+		return textFormatter.formatGp(1234567, false);
+	}
+
+	@Benchmark
+	public String formatGpChanging()
+	{
+		return textFormatter.formatGp(VALUES[index++ % VALUES.length], false);
+	}
+
+	@Benchmark
+	public String formatExactGpChanging()
+	{
+		return textFormatter.formatGp(VALUES[index++ % VALUES.length], true);
+	}
+
+	@Benchmark
+	public String formatRunTimeChanging()
+	{
+		index += 1000;
+		return textFormatter.formatRunTime(index);
+	}
+}
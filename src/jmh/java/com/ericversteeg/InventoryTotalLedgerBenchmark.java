@@ -0,0 +1,54 @@
+package com.ericversteeg;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// building the ledgers shown when mousing over the total
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InventoryTotalLedgerBenchmark
+{
+	private InventoryTotalBenchmarkFixtures fixtures;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception
+	{
+		fixtures = new InventoryTotalBenchmarkFixtures(new InventoryTotalConfig() {});
+		fixtures.startRunWithLoot();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception
+	{
+		fixtures.shutDown();
+	}
+
+	@Benchmark
+	public List<InventoryTotalLedgerItem> inventoryLedger()
+	{
+		return fixtures.plugin.getInventoryLedger();
+	}
+
+	@Benchmark
+	public List<InventoryTotalLedgerItem> profitLossLedger()
+	{
+		return fixtures.plugin.getProfitLossLedger();
+	}
+}
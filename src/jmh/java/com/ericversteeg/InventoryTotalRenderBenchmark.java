@@ -0,0 +1,87 @@
+package com.ericversteeg;
+
+import net.runelite.api.InventoryID;
+import net.runelite.api.Item;
+import net.runelite.api.events.ItemContainerChanged;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// drawing the total into an offscreen canvas sized like the fixed mode client
+// the coin stack is left out since its sprite is loaded asynchronously by the item manager
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InventoryTotalRenderBenchmark
+{
+	private InventoryTotalBenchmarkFixtures fixtures;
+
+	private BufferedImage canvas;
+	private Graphics2D graphics;
+
+	private ItemContainerChanged inventoryChanged;
+	private final Item[] coins = {new Item(995, 1234567), new Item(995, 2345678)};
+	private int frame = 0;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception
+	{
+		fixtures = new InventoryTotalBenchmarkFixtures(new InventoryTotalConfig()
+		{
+			@Override
+			public boolean showCoinStack()
+			{
+				return false;
+			}
+		});
+
+		canvas = new BufferedImage(765, 503, BufferedImage.TYPE_INT_ARGB);
+		graphics = canvas.createGraphics();
+
+		inventoryChanged = new ItemContainerChanged(InventoryID.INVENTORY.getId(), fixtures.inventory);
+
+		// the first tick starts a run
+		fixtures.plugin.onGameTick(null);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception
+	{
+		graphics.dispose();
+		fixtures.shutDown();
+	}
+
+	// nothing changed since the last frame
+	@Benchmark
+	public Dimension renderTotal()
+	{
+		return fixtures.overlay.render(graphics);
+	}
+
+	// the total changes every frame so its image is drawn again
+	@Benchmark
+	public Dimension renderChangingTotal()
+	{
+		fixtures.inventoryItems[0] = coins[frame++ & 1];
+		fixtures.plugin.onItemContainerChanged(inventoryChanged);
+		fixtures.plugin.onGameTick(null);
+		return fixtures.overlay.render(graphics);
+	}
+}
@@ -0,0 +1,347 @@
+package com.ericversteeg;
+
+import com.google.inject.Injector;
+import net.runelite.api.Client;
+import net.runelite.api.EnumComposition;
+import net.runelite.api.InventoryID;
+import net.runelite.api.Item;
+import net.runelite.api.ItemComposition;
+import net.runelite.api.ItemContainer;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.client.config.ConfigManager;
+import net.runelite.client.events.ConfigChanged;
+import net.runelite.client.game.ItemManager;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// replays sessions recorded with the hidden Record Events option through the plugin, without the game client
+// prices and item data come from the recording, so the total after every tick should match what the plugin showed
+// ./gradlew replay -PreplayFiles=<file.events>[,<file.events>...]
+public class InventoryTotalReplay implements InventoryTotalEventRecorder.Handler
+{
+	private final Client client = mock(Client.class);
+	private final ItemManager itemManager = mock(ItemManager.class);
+	private final ConfigManager configManager = mock(ConfigManager.class);
+	private final ReplayConfig config = new ReplayConfig();
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+	private final InventoryTotalPlugin plugin;
+
+	private final Map<Integer, ItemContainer> containers = new HashMap<>();
+	private final Map<Integer, Item[]> containerItems = new HashMap<>();
+	private final InventoryTotalIntMap varbits = new InventoryTotalIntMap();
+	private final InventoryTotalIntMap runeItemIds = new InventoryTotalIntMap();
+
+	private final InventoryTotalIntMap gePrices = new InventoryTotalIntMap();
+	private final InventoryTotalIntMap haPrices = new InventoryTotalIntMap();
+	private final InventoryTotalIntMap unnotedIds = new InventoryTotalIntMap();
+	private final Map<Integer, String> names = new HashMap<>();
+	private final Map<Integer, ItemComposition> compositions = new HashMap<>();
+
+	private String savedData;
+	private int tick = 0;
+
+	private int ticks = 0;
+	private int mismatches = 0;
+	private String firstMismatch;
+
+	// the options that change valuation, the rest keep their defaults
+	private static class ReplayConfig implements InventoryTotalConfig
+	{
+		private InventoryTotalPriceType priceType = InventoryTotalPriceType.GRAND_EXCHANGE;
+		private boolean includeBank = false;
+		private String ignoredItems = InventoryTotalConfig.super.ignoredItems();
+
+		@Override
+		public InventoryTotalPriceType priceType()
+		{
+			return priceType;
+		}
+
+		@Override
+		public boolean includeBank()
+		{
+			return includeBank;
+		}
+
+		@Override
+		public String ignoredItems()
+		{
+			return ignoredItems;
+		}
+
+		private void set(String key, String value)
+		{
+			switch (key)
+			{
+				case "itemPricesKey":
+					priceType = InventoryTotalPriceType.valueOf(value);
+					break;
+				case "includeBank":
+					includeBank = Boolean.parseBoolean(value);
+					break;
+				case "ignoredItems":
+					ignoredItems = value;
+					break;
+			}
+		}
+	}
+
+	InventoryTotalReplay() throws Exception
+	{
+		EnumComposition runepouchEnum = mock(EnumComposition.class);
+		when(runepouchEnum.getIntValue(anyInt())).thenAnswer(i -> runeItemIds.get(i.getArgument(0)));
+
+		when(client.getTickCount()).thenAnswer(i -> tick);
+		when(client.getVarbitValue(anyInt())).thenAnswer(i -> varbits.get(i.getArgument(0)));
+		when(client.getEnum(anyInt())).thenReturn(runepouchEnum);
+		when(client.getItemContainer(any(InventoryID.class)))
+				.thenAnswer(i -> containers.get(((InventoryID) i.getArgument(0)).getId()));
+
+		when(itemManager.getItemPrice(anyInt())).thenAnswer(i -> gePrices.get(i.getArgument(0)));
+		when(itemManager.getItemComposition(anyInt())).thenAnswer(i -> getComposition(i.getArgument(0)));
+
+		when(configManager.getRSProfileKey()).thenReturn("replay");
+		when(configManager.getConfiguration(anyString(), anyString(), anyString())).thenAnswer(i -> savedData);
+
+		Injector injector = InventoryTotalBenchmarkFixtures.createInjector(client, itemManager, configManager, config, executor);
+		plugin = injector.getInstance(InventoryTotalPlugin.class);
+		plugin.startUp();
+	}
+
+	void replay(InputStream in) throws IOException
+	{
+		InventoryTotalEventRecorder.read(in, this);
+	}
+
+	void shutDown() throws Exception
+	{
+		plugin.shutDown();
+		executor.shutdownNow();
+	}
+
+	@Override
+	public void onTick(int tick, long totalGp)
+	{
+		this.tick = tick;
+		plugin.updateTotals();
+		ticks++;
+
+		long replayedGp = plugin.getSnapshot().getTotalGp();
+		if (replayedGp != totalGp)
+		{
+			if (mismatches == 0)
+			{
+				firstMismatch = "tick " + tick + ": recorded " + totalGp + ", replayed " + replayedGp;
+			}
+			mismatches++;
+		}
+	}
+
+	@Override
+	public void onContainer(int tick, int containerId, int[] itemIds, int[] itemQtys)
+	{
+		this.tick = tick;
+
+		Item[] items = new Item[itemIds.length];
+		for (int i = 0; i < items.length; i++)
+		{
+			items[i] = new Item(itemIds[i], itemQtys[i]);
+		}
+		containerItems.put(containerId, items);
+
+		plugin.onItemContainerChanged(new ItemContainerChanged(containerId, getContainer(containerId)));
+	}
+
+	@Override
+	public void onVarbit(int tick, int varbitId, int value, int runeItemId)
+	{
+		this.tick = tick;
+
+		varbits.put(varbitId, value);
+		if (runeItemId >= 0)
+		{
+			runeItemIds.put(value, runeItemId);
+		}
+
+		VarbitChanged event = new VarbitChanged();
+		event.setVarbitId(varbitId);
+		event.setValue(value);
+		plugin.onVarbitChanged(event);
+	}
+
+	@Override
+	public void onState(int tick, InventoryTotalState state)
+	{
+		this.tick = tick;
+		plugin.setState(state);
+	}
+
+	@Override
+	public void onMode(int tick, InventoryTotalMode mode)
+	{
+		this.tick = tick;
+		plugin.setMode(mode);
+	}
+
+	@Override
+	public void onNewRun(int tick)
+	{
+		this.tick = tick;
+		plugin.onNewRun();
+	}
+
+	@Override
+	public void onPostNewRun(int tick)
+	{
+		this.tick = tick;
+		plugin.postNewRun();
+	}
+
+	@Override
+	public void onBank(int tick)
+	{
+		this.tick = tick;
+		plugin.onBank();
+	}
+
+	@Override
+	public void onConfig(int tick, String key, String value)
+	{
+		this.tick = tick;
+		config.set(key, value);
+
+		ConfigChanged event = new ConfigChanged();
+		event.setGroup(InventoryTotalConfig.GROUP);
+		event.setKey(key);
+		event.setNewValue(value);
+		plugin.onConfigChanged(event);
+	}
+
+	@Override
+	public void onRunData(int tick, String savedData)
+	{
+		this.tick = tick;
+		this.savedData = savedData;
+		plugin.onRuneScapeProfileChanged(null);
+	}
+
+	@Override
+	public void onGePrice(int itemId, int price)
+	{
+		gePrices.put(itemId, price);
+	}
+
+	@Override
+	public void onHaPrice(int itemId, int price)
+	{
+		haPrices.put(itemId, price);
+	}
+
+	@Override
+	public void onName(int itemId, String name)
+	{
+		names.put(itemId, name);
+	}
+
+	@Override
+	public void onUnnotedId(int itemId, int unnotedId)
+	{
+		unnotedIds.put(itemId, unnotedId);
+	}
+
+	private ItemContainer getContainer(int containerId)
+	{
+		return containers.computeIfAbsent(containerId, id ->
+		{
+			ItemContainer itemContainer = mock(ItemContainer.class);
+			when(itemContainer.getId()).thenReturn(id);
+			when(itemContainer.getItems()).thenAnswer(i -> containerItems.get(id));
+			when(itemContainer.contains(anyInt())).thenAnswer(i -> contains(containerItems.get(id), i.getArgument(0)));
+			return itemContainer;
+		});
+	}
+
+	private static boolean contains(Item[] items, int itemId)
+	{
+		for (Item item: items)
+		{
+			if (item.getId() == itemId)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private ItemComposition getComposition(int itemId)
+	{
+		return compositions.computeIfAbsent(itemId, id ->
+		{
+			ItemComposition composition = mock(ItemComposition.class);
+			when(composition.getHaPrice()).thenAnswer(i -> haPrices.get(id));
+			when(composition.getName()).thenAnswer(i -> names.get(id));
+			when(composition.getNote()).thenAnswer(i -> isNoted(id) ? 799 : -1);
+			when(composition.getLinkedNoteId()).thenAnswer(i -> unnotedIds.get(id));
+			return composition;
+		});
+	}
+
+	private boolean isNoted(int itemId)
+	{
+		return unnotedIds.containsKey(itemId) && unnotedIds.get(itemId) != itemId;
+	}
+
+	public static void main(String[] args) throws Exception
+	{
+		if (args.length == 0)
+		{
+			System.err.println("Usage: InventoryTotalReplay <file.events>...");
+			System.exit(2);
+		}
+
+		boolean failed = false;
+
+		for (String arg: args)
+		{
+			File file = new File(arg);
+			InventoryTotalReplay replay = new InventoryTotalReplay();
+
+			long start = System.nanoTime();
+			try (InputStream in = new BufferedInputStream(new FileInputStream(file)))
+			{
+				replay.replay(in);
+			}
+			long elapsedMs = (System.nanoTime() - start) / 1000000;
+
+			InventoryTotalSnapshot snapshot = replay.plugin.getSnapshot();
+			System.out.println(file.getName() + ": " + replay.ticks + " ticks in " + elapsedMs + " ms, final total "
+					+ snapshot.getTotalGp() + " gp, " + replay.mismatches + " mismatched ticks");
+
+			if (replay.mismatches > 0)
+			{
+				System.out.println("  first mismatch at " + replay.firstMismatch);
+				failed = true;
+			}
+
+			replay.shutDown();
+		}
+
+		System.exit(failed ? 1 : 0);
+	}
+}
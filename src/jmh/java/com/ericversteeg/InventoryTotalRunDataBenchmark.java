@@ -0,0 +1,87 @@
+package com.ericversteeg;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// saved run data with a few hundred priced items, in the binary format and in the json saved before it
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InventoryTotalRunDataBenchmark
+{
+	private static final int ITEM_COUNT = 400;
+
+	private final Gson gson = new Gson();
+
+	private InventoryTotalRunData runData;
+	private String encoded;
+	private String json;
+
+	@Setup
+	public void setUp() throws IOException
+	{
+		Random random = new Random(7);
+		runData = new InventoryTotalRunData();
+
+		for (int i = 0; i < ITEM_COUNT; i++)
+		{
+			int itemId = random.nextInt(30000);
+			runData.prices.putGePrice(itemId, random.nextInt(5000000));
+			runData.prices.putHaPrice(itemId, random.nextInt(3000000));
+
+			if (i % 10 == 0)
+			{
+				runData.initialItemQtys.put(itemId, 1 + random.nextInt(1000));
+				runData.itemQtys.put(itemId, 1 + random.nextInt(1000));
+			}
+		}
+
+		runData.profitLossInitialGp = 12345678;
+		runData.profitLossInitialGpHA = 9876543;
+		runData.ignoredItems.add("Coins");
+		runData.ignoredItems.add("Rune pouch");
+
+		encoded = InventoryTotalRunDataCodec.encode(runData);
+		json = gson.toJson(runData);
+	}
+
+	@Benchmark
+	public String encode() throws IOException
+	{
+		return InventoryTotalRunDataCodec.encode(runData);
+	}
+
+	@Benchmark
+	public InventoryTotalRunData decode() throws IOException
+	{
+		return InventoryTotalRunDataCodec.decode(encoded);
+	}
+
+	@Benchmark
+	public String encodeJson()
+	{
+		return gson.toJson(runData);
+	}
+
+	@Benchmark
+	public InventoryTotalRunData decodeJson()
+	{
+		return gson.fromJson(json, InventoryTotalRunData.class);
+	}
+}
@@ -0,0 +1,80 @@
+package com.ericversteeg;
+
+import net.runelite.api.InventoryID;
+import net.runelite.api.Item;
+import net.runelite.api.events.ItemContainerChanged;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// valuing the inventory and equipment, from scratch and for the usual single slot change per tick
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InventoryTotalTotalsBenchmark
+{
+	private InventoryTotalBenchmarkFixtures fixtures;
+
+	private ItemContainerChanged inventoryChanged;
+	private ItemContainerChanged equipmentChanged;
+
+	private final Item[] inventorySlots = {new Item(560, 1200), new Item(560, 1199)};
+	private final Item[] equipmentSlots = {new Item(892, 500), new Item(892, 499)};
+	private int tick = 0;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception
+	{
+		fixtures = new InventoryTotalBenchmarkFixtures(new InventoryTotalConfig() {});
+		fixtures.plugin.postNewRun();
+
+		inventoryChanged = new ItemContainerChanged(InventoryID.INVENTORY.getId(), fixtures.inventory);
+		equipmentChanged = new ItemContainerChanged(InventoryID.EQUIPMENT.getId(), fixtures.equipment);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception
+	{
+		fixtures.shutDown();
+	}
+
+	@Benchmark
+	public InventoryTotalSnapshot rebuildTotals()
+	{
+		return fixtures.plugin.recomputeTotals(false);
+	}
+
+	// casting a spell, one rune stack changes
+	@Benchmark
+	public InventoryTotalSnapshot inventoryTotals()
+	{
+		fixtures.inventoryItems[20] = inventorySlots[tick++ & 1];
+		fixtures.plugin.onItemContainerChanged(inventoryChanged);
+		fixtures.plugin.onGameTick(null);
+		return fixtures.plugin.getSnapshot();
+	}
+
+	// firing arrows
+	@Benchmark
+	public InventoryTotalSnapshot equipmentTotals()
+	{
+		fixtures.equipmentItems[14] = equipmentSlots[tick++ & 1];
+		fixtures.plugin.onItemContainerChanged(equipmentChanged);
+		fixtures.plugin.onGameTick(null);
+		return fixtures.plugin.getSnapshot();
+	}
+}
@@ -307,9 +307,110 @@ public interface InventoryTotalConfig extends Config
 			position = 24,
 			keyName = "ignoredItems",
 			name = "Ignored Items",
-			description = "Ignore these items in your inventory."
+			description = "Ignore these items in your inventory. Accepts names, * wildcards and item ids written like #4151."
 	)
 	default String ignoredItems() {
 		return "Cannon barrels, Cannon base, Cannon furnace, Cannon stand";
 	}
+
+	@ConfigItem(
+			position = 25,
+			keyName = "includeBank",
+			name = "Include Bank",
+			description = "Adds your bank and equipment to the total to show net worth. The bank is counted once it has been opened."
+	)
+	default boolean includeBank()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+			position = 26,
+			keyName = "recordRunHistory",
+			name = "Record Run History",
+			description = "Saves every finished run to the inventory-total folder in the RuneLite directory."
+	)
+	default boolean recordRunHistory()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+			position = 27,
+			keyName = "showGpPerHour",
+			name = "Show GP/Hour",
+			description = "Configures whether or not gp per hour is shown next to the run time."
+	)
+	default boolean showGpPerHour()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+			position = 28,
+			keyName = "gpPerHourType",
+			name = "GP/Hour Type",
+			description = "Average gp per hour over the whole run, or weighted towards the last few minutes."
+	)
+	default InventoryTotalRateType gpPerHourType()
+	{
+		return InventoryTotalRateType.RUN;
+	}
+
+	@ConfigItem(
+			position = 29,
+			keyName = "recordEvents",
+			name = "Record Events",
+			description = "Records inventory events to the inventory-total/events folder so sessions can be replayed.",
+			hidden = true
+	)
+	default boolean recordEvents()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+			position = 30,
+			keyName = "perfDebug",
+			name = "Performance Debug",
+			description = "Shows timings of the plugin's hot paths. Turning it off saves them to the inventory-total folder.",
+			hidden = true
+	)
+	default boolean perfDebug()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+			position = 31,
+			keyName = "priceSource",
+			name = "GE Price Source",
+			description = "Where Grand Exchange prices come from, items already priced in the run keep their price. The price file is inventory-total/prices.csv with item id, high, low lines."
+	)
+	default InventoryTotalPriceSource priceSource()
+	{
+		return InventoryTotalPriceSource.GRAND_EXCHANGE;
+	}
+
+	@ConfigItem(
+			position = 32,
+			keyName = "livePrices",
+			name = "Live Prices",
+			description = "Values what's held at the latest GE prices when RuneLite reloads them, instead of at the prices from the start of the run."
+	)
+	default boolean livePrices()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+			position = 33,
+			keyName = "showItemsPerHour",
+			name = "Show Items/Hour",
+			description = "Shows how many of each item you gain or lose per hour in the profit / loss ledger."
+	)
+	default boolean showItemsPerHour()
+	{
+		return false;
+	}
 }
@@ -0,0 +1,332 @@
+package com.ericversteeg;
+
+import net.runelite.api.Item;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+// records what the plugin is fed (containers, rune pouch varbits, ticks, state changes and config)
+// together with the item data looked up while handling it, so a session can be replayed without the game client
+// each event is written after the plugin has handled it, so the item data it needed comes before it in the file
+// events are a type byte, the ticks since the previous event and the event's values as varints
+class InventoryTotalEventRecorder implements Closeable
+{
+	static final File EVENTS_DIR = new File(InventoryTotalRunHistory.HISTORY_DIR, "events");
+
+	private static final int MAGIC = 0x49544531; // ITE1
+
+	private static final int TICK = 1;
+	private static final int CONTAINER = 2;
+	private static final int VARBIT = 3;
+	private static final int STATE = 4;
+	private static final int MODE = 5;
+	private static final int NEW_RUN = 6;
+	private static final int POST_NEW_RUN = 7;
+	private static final int BANK = 8;
+	private static final int CONFIG = 9;
+	private static final int RUN_DATA = 10;
+	private static final int GE_PRICE = 11;
+	private static final int HA_PRICE = 12;
+	private static final int NAME = 13;
+	private static final int UNNOTED_ID = 14;
+
+	public interface Handler
+	{
+		// totalGp is what the plugin showed after the tick, to compare a replay against
+		void onTick(int tick, long totalGp);
+
+		void onContainer(int tick, int containerId, int[] itemIds, int[] itemQtys);
+
+		// runeItemId is the rune a rune pouch rune varbit maps to, -1 for other varbits
+		void onVarbit(int tick, int varbitId, int value, int runeItemId);
+
+		void onState(int tick, InventoryTotalState state);
+
+		void onMode(int tick, InventoryTotalMode mode);
+
+		void onNewRun(int tick);
+
+		void onPostNewRun(int tick);
+
+		void onBank(int tick);
+
+		void onConfig(int tick, String key, String value);
+
+		void onRunData(int tick, String savedData);
+
+		void onGePrice(int itemId, int price);
+
+		void onHaPrice(int itemId, int price);
+
+		void onName(int itemId, String name);
+
+		void onUnnotedId(int itemId, int unnotedId);
+	}
+
+	private final DataOutputStream out;
+	private int lastTick = 0;
+
+	private InventoryTotalEventRecorder(DataOutputStream out)
+	{
+		this.out = out;
+	}
+
+	static InventoryTotalEventRecorder create(File file) throws IOException
+	{
+		File dir = file.getParentFile();
+		if (dir != null && !dir.exists() && !dir.mkdirs())
+		{
+			throw new IOException("Unable to create " + dir);
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		out.writeInt(MAGIC);
+		return new InventoryTotalEventRecorder(out);
+	}
+
+	void recordTick(int tick, long totalGp) throws IOException
+	{
+		writeHeader(TICK, tick);
+		InventoryTotalVarInts.writeSignedVarLong(out, totalGp);
+	}
+
+	void recordContainer(int tick, int containerId, Item[] items) throws IOException
+	{
+		writeHeader(CONTAINER, tick);
+		InventoryTotalVarInts.writeVarInt(out, containerId);
+
+		int size = items == null ? 0 : items.length;
+		InventoryTotalVarInts.writeVarInt(out, size);
+		for (int i = 0; i < size; i++)
+		{
+			// empty slots are -1
+			InventoryTotalVarInts.writeVarInt(out, items[i] == null ? 0 : items[i].getId() + 1);
+			InventoryTotalVarInts.writeVarInt(out, items[i] == null ? 0 : items[i].getQuantity());
+		}
+	}
+
+	void recordVarbit(int tick, int varbitId, int value, int runeItemId) throws IOException
+	{
+		writeHeader(VARBIT, tick);
+		InventoryTotalVarInts.writeVarInt(out, varbitId);
+		InventoryTotalVarInts.writeSignedVarInt(out, value);
+		InventoryTotalVarInts.writeVarInt(out, runeItemId + 1);
+	}
+
+	void recordState(int tick, InventoryTotalState state) throws IOException
+	{
+		writeHeader(STATE, tick);
+		InventoryTotalVarInts.writeVarInt(out, state.ordinal());
+	}
+
+	void recordMode(int tick, InventoryTotalMode mode) throws IOException
+	{
+		writeHeader(MODE, tick);
+		InventoryTotalVarInts.writeVarInt(out, mode.ordinal());
+	}
+
+	void recordNewRun(int tick) throws IOException
+	{
+		writeHeader(NEW_RUN, tick);
+	}
+
+	void recordPostNewRun(int tick) throws IOException
+	{
+		writeHeader(POST_NEW_RUN, tick);
+	}
+
+	void recordBank(int tick) throws IOException
+	{
+		writeHeader(BANK, tick);
+	}
+
+	void recordConfig(int tick, String key, String value) throws IOException
+	{
+		writeHeader(CONFIG, tick);
+		out.writeUTF(key);
+		out.writeUTF(value == null ? "" : value);
+	}
+
+	// the run data encoded the way it's saved, so prices frozen before recording started are known to the replay
+	void recordRunData(int tick, String savedData) throws IOException
+	{
+		writeHeader(RUN_DATA, tick);
+		byte[] bytes = savedData.getBytes(StandardCharsets.UTF_8);
+		InventoryTotalVarInts.writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+
+	void recordGePrice(int itemId, int price) throws IOException
+	{
+		writeItemHeader(GE_PRICE, itemId);
+		InventoryTotalVarInts.writeSignedVarInt(out, price);
+	}
+
+	void recordHaPrice(int itemId, int price) throws IOException
+	{
+		writeItemHeader(HA_PRICE, itemId);
+		InventoryTotalVarInts.writeSignedVarInt(out, price);
+	}
+
+	void recordName(int itemId, String name) throws IOException
+	{
+		writeItemHeader(NAME, itemId);
+		out.writeUTF(name == null ? "" : name);
+	}
+
+	void recordUnnotedId(int itemId, int unnotedId) throws IOException
+	{
+		writeItemHeader(UNNOTED_ID, itemId);
+		InventoryTotalVarInts.writeVarInt(out, unnotedId);
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		out.close();
+	}
+
+	private void writeHeader(int type, int tick) throws IOException
+	{
+		out.writeByte(type);
+		InventoryTotalVarInts.writeSignedVarInt(out, tick - lastTick);
+		lastTick = tick;
+	}
+
+	// item data isn't tied to a tick
+	private void writeItemHeader(int type, int itemId) throws IOException
+	{
+		out.writeByte(type);
+		InventoryTotalVarInts.writeVarInt(out, itemId);
+	}
+
+	static void read(InputStream stream, Handler handler) throws IOException
+	{
+		DataInputStream in = new DataInputStream(stream);
+
+		if (in.readInt() != MAGIC)
+		{
+			throw new IOException("Unknown event log format");
+		}
+
+		int tick = 0;
+
+		while (true)
+		{
+			int type = in.read();
+			if (type < 0)
+			{
+				return;
+			}
+
+			try
+			{
+				if (type < GE_PRICE)
+				{
+					tick += InventoryTotalVarInts.readSignedVarInt(in);
+				}
+
+				readEvent(in, type, tick, handler);
+			}
+			catch (EOFException e)
+			{
+				// the last event was cut off, e.g. the client was closed while recording
+				return;
+			}
+		}
+	}
+
+	private static void readEvent(DataInput in, int type, int tick, Handler handler) throws IOException
+	{
+		switch (type)
+		{
+			case TICK:
+				handler.onTick(tick, InventoryTotalVarInts.readSignedVarLong(in));
+				break;
+
+			case CONTAINER:
+			{
+				int containerId = InventoryTotalVarInts.readVarInt(in);
+				int size = InventoryTotalVarInts.readVarInt(in);
+				int[] itemIds = new int[size];
+				int[] itemQtys = new int[size];
+				for (int i = 0; i < size; i++)
+				{
+					itemIds[i] = InventoryTotalVarInts.readVarInt(in) - 1;
+					itemQtys[i] = InventoryTotalVarInts.readVarInt(in);
+				}
+				handler.onContainer(tick, containerId, itemIds, itemQtys);
+				break;
+			}
+
+			case VARBIT:
+			{
+				int varbitId = InventoryTotalVarInts.readVarInt(in);
+				int value = InventoryTotalVarInts.readSignedVarInt(in);
+				int runeItemId = InventoryTotalVarInts.readVarInt(in) - 1;
+				handler.onVarbit(tick, varbitId, value, runeItemId);
+				break;
+			}
+
+			case STATE:
+				handler.onState(tick, InventoryTotalState.values()[InventoryTotalVarInts.readVarInt(in)]);
+				break;
+
+			case MODE:
+				handler.onMode(tick, InventoryTotalMode.values()[InventoryTotalVarInts.readVarInt(in)]);
+				break;
+
+			case NEW_RUN:
+				handler.onNewRun(tick);
+				break;
+
+			case POST_NEW_RUN:
+				handler.onPostNewRun(tick);
+				break;
+
+			case BANK:
+				handler.onBank(tick);
+				break;
+
+			case CONFIG:
+				handler.onConfig(tick, in.readUTF(), in.readUTF());
+				break;
+
+			case RUN_DATA:
+			{
+				byte[] bytes = new byte[InventoryTotalVarInts.readVarInt(in)];
+				in.readFully(bytes);
+				handler.onRunData(tick, new String(bytes, StandardCharsets.UTF_8));
+				break;
+			}
+
+			case GE_PRICE:
+				handler.onGePrice(InventoryTotalVarInts.readVarInt(in), InventoryTotalVarInts.readSignedVarInt(in));
+				break;
+
+			case HA_PRICE:
+				handler.onHaPrice(InventoryTotalVarInts.readVarInt(in), InventoryTotalVarInts.readSignedVarInt(in));
+				break;
+
+			case NAME:
+				handler.onName(InventoryTotalVarInts.readVarInt(in), in.readUTF());
+				break;
+
+			case UNNOTED_ID:
+				handler.onUnnotedId(InventoryTotalVarInts.readVarInt(in), InventoryTotalVarInts.readVarInt(in));
+				break;
+
+			default:
+				throw new IOException("Unknown event type " + type);
+		}
+	}
+}
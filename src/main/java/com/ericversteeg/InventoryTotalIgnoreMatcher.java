@@ -0,0 +1,260 @@
+package com.ericversteeg;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+// compiled form of the ignored items config
+// plain entries match anywhere in the item name (one aho-corasick pass for all of them),
+// entries containing * are matched against the whole name, and entries like #4151 match an item id, noted or not
+// numbers without the # are names like any other, as they always were
+// verdicts are memoized per item id so repeated scans are a single bit lookup
+public class InventoryTotalIgnoreMatcher
+{
+	static final InventoryTotalIgnoreMatcher NONE = compile(Collections.emptyList());
+
+	private static final int ROOT = 0;
+
+	// substring automaton
+	private final char[][] edgeChars;
+	private final int[][] edgeTargets;
+	private final int[] fail;
+	private final boolean[] terminal;
+
+	private final List<Pattern> wildcards;
+	private final BitSet exactIds;
+
+	private final BitSet resolvedIds = new BitSet();
+	private final BitSet ignoredIds = new BitSet();
+
+	private InventoryTotalIgnoreMatcher(char[][] edgeChars, int[][] edgeTargets, int[] fail, boolean[] terminal,
+										List<Pattern> wildcards, BitSet exactIds)
+	{
+		this.edgeChars = edgeChars;
+		this.edgeTargets = edgeTargets;
+		this.fail = fail;
+		this.terminal = terminal;
+		this.wildcards = wildcards;
+		this.exactIds = exactIds;
+	}
+
+	static InventoryTotalIgnoreMatcher compile(Collection<String> ignoredItems)
+	{
+		List<Map<Character, Integer>> trie = new ArrayList<>();
+		List<Boolean> terminals = new ArrayList<>();
+		trie.add(new HashMap<>());
+		terminals.add(false);
+
+		List<Pattern> wildcards = new ArrayList<>();
+		BitSet exactIds = new BitSet();
+
+		for (String ignoredItem: ignoredItems)
+		{
+			if (ignoredItem == null)
+			{
+				continue;
+			}
+
+			String pattern = ignoredItem.trim().toLowerCase(Locale.ENGLISH);
+
+			// an empty entry would otherwise match every item
+			if (pattern.isEmpty())
+			{
+				continue;
+			}
+
+			if (isItemId(pattern))
+			{
+				exactIds.set(Integer.parseInt(pattern.substring(1).trim()));
+			}
+			else if (pattern.indexOf('*') >= 0)
+			{
+				wildcards.add(toRegex(pattern));
+			}
+			else
+			{
+				int state = ROOT;
+				for (int i = 0; i < pattern.length(); i++)
+				{
+					Character c = pattern.charAt(i);
+					Integer next = trie.get(state).get(c);
+					if (next == null)
+					{
+						next = trie.size();
+						trie.add(new HashMap<>());
+						terminals.add(false);
+						trie.get(state).put(c, next);
+					}
+					state = next;
+				}
+				terminals.set(state, true);
+			}
+		}
+
+		int size = trie.size();
+
+		char[][] edgeChars = new char[size][];
+		int[][] edgeTargets = new int[size][];
+		int[] fail = new int[size];
+		boolean[] terminal = new boolean[size];
+
+		for (int state = 0; state < size; state++)
+		{
+			Map<Character, Integer> edges = new TreeMap<>(trie.get(state));
+			edgeChars[state] = new char[edges.size()];
+			edgeTargets[state] = new int[edges.size()];
+
+			int i = 0;
+			for (Map.Entry<Character, Integer> edge: edges.entrySet())
+			{
+				edgeChars[state][i] = edge.getKey();
+				edgeTargets[state][i] = edge.getValue();
+				i++;
+			}
+
+			terminal[state] = terminals.get(state);
+		}
+
+		// breadth first so that a state's failure link is resolved before its children
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		for (int target: edgeTargets[ROOT])
+		{
+			fail[target] = ROOT;
+			queue.add(target);
+		}
+
+		while (!queue.isEmpty())
+		{
+			int state = queue.poll();
+			for (int i = 0; i < edgeChars[state].length; i++)
+			{
+				char c = edgeChars[state][i];
+				int target = edgeTargets[state][i];
+
+				int fallback = fail[state];
+				while (fallback != ROOT && step(edgeChars, edgeTargets, fallback, c) < 0)
+				{
+					fallback = fail[fallback];
+				}
+
+				int failTarget = step(edgeChars, edgeTargets, fallback, c);
+				fail[target] = failTarget < 0 ? ROOT : failTarget;
+				terminal[target] |= terminal[fail[target]];
+
+				queue.add(target);
+			}
+		}
+
+		return new InventoryTotalIgnoreMatcher(edgeChars, edgeTargets, fail, terminal, wildcards, exactIds);
+	}
+
+	// canonicalId is the unnoted id of a noted item, otherwise the item id itself
+	boolean isIgnored(int itemId, int canonicalId, String itemName)
+	{
+		if (itemId >= 0 && resolvedIds.get(itemId))
+		{
+			return ignoredIds.get(itemId);
+		}
+
+		boolean ignored = matches(itemId, canonicalId, itemName);
+
+		if (itemId >= 0)
+		{
+			resolvedIds.set(itemId);
+			ignoredIds.set(itemId, ignored);
+		}
+
+		return ignored;
+	}
+
+	private boolean matches(int itemId, int canonicalId, String itemName)
+	{
+		if ((itemId >= 0 && exactIds.get(itemId)) || (canonicalId >= 0 && exactIds.get(canonicalId)))
+		{
+			return true;
+		}
+
+		if (itemName == null)
+		{
+			return false;
+		}
+
+		String lcItemName = itemName.toLowerCase(Locale.ENGLISH);
+
+		int state = ROOT;
+		for (int i = 0; i < lcItemName.length(); i++)
+		{
+			char c = lcItemName.charAt(i);
+
+			int next = step(edgeChars, edgeTargets, state, c);
+			while (next < 0 && state != ROOT)
+			{
+				state = fail[state];
+				next = step(edgeChars, edgeTargets, state, c);
+			}
+			state = next < 0 ? ROOT : next;
+
+			if (terminal[state])
+			{
+				return true;
+			}
+		}
+
+		for (Pattern wildcard: wildcards)
+		{
+			if (wildcard.matcher(lcItemName).matches())
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static int step(char[][] edgeChars, int[][] edgeTargets, int state, char c)
+	{
+		int i = Arrays.binarySearch(edgeChars[state], c);
+		return i < 0 ? -1 : edgeTargets[state][i];
+	}
+
+	// # then up to 9 digits
+	private static boolean isItemId(String pattern)
+	{
+		String digits = pattern.substring(1).trim();
+		if (pattern.charAt(0) != '#' || digits.isEmpty() || digits.length() > 9)
+		{
+			return false;
+		}
+
+		for (int i = 0; i < digits.length(); i++)
+		{
+			if (!Character.isDigit(digits.charAt(i)))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Pattern toRegex(String pattern)
+	{
+		StringBuilder regex = new StringBuilder();
+		int start = 0;
+		int star;
+		while ((star = pattern.indexOf('*', start)) >= 0)
+		{
+			if (star > start)
+			{
+				regex.append(Pattern.quote(pattern.substring(start, star)));
+			}
+			regex.append(".*");
+			start = star + 1;
+		}
+
+		if (start < pattern.length())
+		{
+			regex.append(Pattern.quote(pattern.substring(start)));
+		}
+
+		return Pattern.compile(regex.toString(), Pattern.DOTALL);
+	}
+}
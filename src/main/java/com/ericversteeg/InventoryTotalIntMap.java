@@ -0,0 +1,257 @@
+package com.ericversteeg;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// open addressing int -> int map so that item quantities and prices can be updated without boxing
+// serialized the same way gson writes a Map<Integer, Integer> so previously saved data still loads
+@JsonAdapter(value = InventoryTotalIntMap.Adapter.class, nullSafe = false)
+public class InventoryTotalIntMap
+{
+	private static final int EMPTY = Integer.MIN_VALUE;
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private int[] keys;
+	private int[] values;
+	private int size = 0;
+
+	public interface Consumer
+	{
+		void accept(int key, int value);
+	}
+
+	public InventoryTotalIntMap()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	public InventoryTotalIntMap(int expectedSize)
+	{
+		int capacity = Integer.highestOneBit(Math.max(expectedSize * 2, 4) - 1) << 1;
+		keys = new int[capacity];
+		values = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+	}
+
+	public InventoryTotalIntMap(InventoryTotalIntMap other)
+	{
+		keys = other.keys.clone();
+		values = other.values.clone();
+		size = other.size;
+	}
+
+	public boolean containsKey(int key)
+	{
+		return keys[indexOf(key)] != EMPTY;
+	}
+
+	// 0 when the key is not present
+	public int get(int key)
+	{
+		int index = indexOf(key);
+		return keys[index] == EMPTY ? 0 : values[index];
+	}
+
+	public void put(int key, int value)
+	{
+		checkKey(key);
+
+		int index = indexOf(key);
+		if (keys[index] == EMPTY)
+		{
+			insert(index, key, value);
+		}
+		else
+		{
+			values[index] = value;
+		}
+	}
+
+	// adds to the existing value, treating a missing key as 0, and returns the new value
+	public int add(int key, int delta)
+	{
+		checkKey(key);
+
+		int index = indexOf(key);
+		if (keys[index] == EMPTY)
+		{
+			insert(index, key, delta);
+			return delta;
+		}
+
+		values[index] += delta;
+		return values[index];
+	}
+
+	public void remove(int key)
+	{
+		int index = indexOf(key);
+		if (keys[index] == EMPTY)
+		{
+			return;
+		}
+
+		keys[index] = EMPTY;
+		size--;
+
+		// shift back the rest of the probe chain so lookups don't stop early
+		int mask = keys.length - 1;
+		int next = (index + 1) & mask;
+		while (keys[next] != EMPTY)
+		{
+			int k = keys[next];
+			int v = values[next];
+			keys[next] = EMPTY;
+			size--;
+			insert(indexOf(k), k, v);
+			next = (next + 1) & mask;
+		}
+	}
+
+	public void clear()
+	{
+		if (size > 0)
+		{
+			Arrays.fill(keys, EMPTY);
+			size = 0;
+		}
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	int capacity()
+	{
+		return keys.length;
+	}
+
+	public void forEach(Consumer consumer)
+	{
+		for (int i = 0; i < keys.length; i++)
+		{
+			if (keys[i] != EMPTY)
+			{
+				consumer.accept(keys[i], values[i]);
+			}
+		}
+	}
+
+	// the empty slot marker can't be a key, it would be taken for an empty slot
+	private static void checkKey(int key)
+	{
+		if (key == EMPTY)
+		{
+			throw new IllegalArgumentException("Unsupported key " + key);
+		}
+	}
+
+	private void insert(int index, int key, int value)
+	{
+		keys[index] = key;
+		values[index] = value;
+		size++;
+
+		if (size * 2 > keys.length)
+		{
+			resize(keys.length * 2);
+		}
+	}
+
+	private void resize(int capacity)
+	{
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+
+		keys = new int[capacity];
+		values = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldKeys[i] != EMPTY)
+			{
+				int index = indexOf(oldKeys[i]);
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+				size++;
+			}
+		}
+	}
+
+	private int indexOf(int key)
+	{
+		int mask = keys.length - 1;
+		int index = mix(key) & mask;
+		while (keys[index] != EMPTY && keys[index] != key)
+		{
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	private static int mix(int key)
+	{
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	static class Adapter extends TypeAdapter<InventoryTotalIntMap>
+	{
+		@Override
+		public void write(JsonWriter out, InventoryTotalIntMap map) throws IOException
+		{
+			if (map == null)
+			{
+				out.nullValue();
+				return;
+			}
+
+			out.beginObject();
+			for (int i = 0; i < map.keys.length; i++)
+			{
+				if (map.keys[i] != EMPTY)
+				{
+					out.name(Integer.toString(map.keys[i]));
+					out.value(map.values[i]);
+				}
+			}
+			out.endObject();
+		}
+
+		@Override
+		public InventoryTotalIntMap read(JsonReader in) throws IOException
+		{
+			if (in.peek() == JsonToken.NULL)
+			{
+				in.nextNull();
+				return new InventoryTotalIntMap();
+			}
+
+			InventoryTotalIntMap map = new InventoryTotalIntMap();
+
+			in.beginObject();
+			while (in.hasNext())
+			{
+				int key = Integer.parseInt(in.nextName());
+				map.put(key, in.nextInt());
+			}
+			in.endObject();
+
+			return map;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.ericversteeg;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// item metadata indexed by item id, filled lazily from the item provider the first time an id is seen
+public class InventoryTotalItemCache
+{
+	private static final int INITIAL_CAPACITY = 32768;
+
+	private final InventoryTotalItemProvider itemProvider;
+
+	private final BitSet loadedIds = new BitSet();
+	private int[] canonicalIds = new int[INITIAL_CAPACITY];
+	private int[] haPrices = new int[INITIAL_CAPACITY];
+	private String[] names = new String[INITIAL_CAPACITY];
+
+	private InventoryTotalIgnoreMatcher ignoreMatcher = InventoryTotalIgnoreMatcher.NONE;
+
+	InventoryTotalItemCache(InventoryTotalItemProvider itemProvider)
+	{
+		this.itemProvider = itemProvider;
+	}
+
+	void setIgnoreMatcher(InventoryTotalIgnoreMatcher ignoreMatcher)
+	{
+		this.ignoreMatcher = ignoreMatcher;
+	}
+
+	// unnoted id for noted items, otherwise the id itself
+	int getCanonicalId(int itemId)
+	{
+		load(itemId);
+		return canonicalIds[itemId];
+	}
+
+	String getName(int itemId)
+	{
+		load(itemId);
+		return names[itemId];
+	}
+
+	int getHaPrice(int itemId)
+	{
+		load(itemId);
+		return haPrices[itemId];
+	}
+
+	boolean isIgnored(int itemId)
+	{
+		int canonicalId = getCanonicalId(itemId);
+		return ignoreMatcher.isIgnored(itemId, canonicalId, names[itemId]);
+	}
+
+	private void load(int itemId)
+	{
+		if (loadedIds.get(itemId))
+		{
+			return;
+		}
+
+		ensureCapacity(itemId);
+
+		canonicalIds[itemId] = itemProvider.getUnnotedId(itemId);
+		haPrices[itemId] = itemProvider.getHaPrice(itemId);
+		names[itemId] = itemProvider.getName(itemId);
+
+		loadedIds.set(itemId);
+	}
+
+	private void ensureCapacity(int itemId)
+	{
+		if (itemId < canonicalIds.length)
+		{
+			return;
+		}
+
+		int capacity = canonicalIds.length;
+		while (capacity <= itemId)
+		{
+			capacity *= 2;
+		}
+
+		canonicalIds = Arrays.copyOf(canonicalIds, capacity);
+		haPrices = Arrays.copyOf(haPrices, capacity);
+		names = Arrays.copyOf(names, capacity);
+	}
+}
@@ -0,0 +1,29 @@
+package com.ericversteeg;
+
+import net.runelite.client.game.ItemManager;
+
+// price providers backed by ItemManager, all lookups are in memory
+// item compositions must be loaded on the client thread, so the alchemy prices are only used from there
+final class InventoryTotalItemManagerPrices
+{
+	private InventoryTotalItemManagerPrices()
+	{
+	}
+
+	// the grand exchange guide price
+	static InventoryTotalPriceProvider grandExchange(ItemManager itemManager)
+	{
+		return itemManager::getItemPrice;
+	}
+
+	static InventoryTotalPriceProvider highAlch(ItemManager itemManager)
+	{
+		return itemId -> itemManager.getItemComposition(itemId).getHaPrice();
+	}
+
+	// low alchemy gives 2/5 of the item's value
+	static InventoryTotalPriceProvider lowAlch(ItemManager itemManager)
+	{
+		return itemId -> (int) (itemManager.getItemComposition(itemId).getPrice() * 2L / 5);
+	}
+}
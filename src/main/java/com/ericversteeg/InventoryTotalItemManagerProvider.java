@@ -0,0 +1,59 @@
+package com.ericversteeg;
+
+import net.runelite.api.ItemComposition;
+import net.runelite.client.game.ItemManager;
+
+// item compositions must be loaded on the client thread, so this is only used from there
+// gp prices come from whichever price provider is set, high alchemy prices from the item compositions
+class InventoryTotalItemManagerProvider implements InventoryTotalItemProvider
+{
+	private final ItemManager itemManager;
+	private final InventoryTotalPriceProvider haPrices;
+
+	private InventoryTotalPriceProvider gePrices;
+
+	InventoryTotalItemManagerProvider(ItemManager itemManager, InventoryTotalPriceProvider gePrices)
+	{
+		this.itemManager = itemManager;
+		this.haPrices = InventoryTotalItemManagerPrices.highAlch(itemManager);
+		this.gePrices = gePrices;
+	}
+
+	// prices already frozen in the run data keep the value they were priced at
+	void setGePrices(InventoryTotalPriceProvider gePrices)
+	{
+		this.gePrices = gePrices;
+	}
+
+	@Override
+	public int getGePrice(int itemId)
+	{
+		return gePrices.getPrice(itemId);
+	}
+
+	@Override
+	public int getHaPrice(int itemId)
+	{
+		return haPrices.getPrice(itemId);
+	}
+
+	@Override
+	public void prefetch(int[] itemIds)
+	{
+		gePrices.prefetch(itemIds);
+		haPrices.prefetch(itemIds);
+	}
+
+	@Override
+	public String getName(int itemId)
+	{
+		return itemManager.getItemComposition(itemId).getName();
+	}
+
+	@Override
+	public int getUnnotedId(int itemId)
+	{
+		final ItemComposition itemComposition = itemManager.getItemComposition(itemId);
+		return itemComposition.getNote() != -1 ? itemComposition.getLinkedNoteId() : itemId;
+	}
+}
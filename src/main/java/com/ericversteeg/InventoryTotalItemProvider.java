@@ -0,0 +1,20 @@
+package com.ericversteeg;
+
+// prices and item metadata used to value items, so valuation doesn't need the game client
+// the plugin backs this with ItemManager, anything else (benchmarks, replays) can use fixed tables
+interface InventoryTotalItemProvider
+{
+	int getGePrice(int itemId);
+
+	int getHaPrice(int itemId);
+
+	// called with the items about to be priced, before they're priced one at a time
+	default void prefetch(int[] itemIds)
+	{
+	}
+
+	String getName(int itemId);
+
+	// the unnoted id for noted items, otherwise the id itself
+	int getUnnotedId(int itemId);
+}
@@ -4,6 +4,8 @@ public class InventoryTotalLedgerItem {
     private final String description;
     private int qty;
     private final int amount;
+    // net change per hour over the run, 0 when it isn't shown
+    private long qtyPerHour;
 
     public InventoryTotalLedgerItem(String description, int qty, int amount)
     {
@@ -27,8 +29,18 @@ public class InventoryTotalLedgerItem {
         return amount;
     }
 
+    public long getQtyPerHour()
+    {
+        return qtyPerHour;
+    }
+
     public void addQuantityDifference(int qtyDifference)
     {
         qty += qtyDifference;
     }
+
+    public void addQtyPerHour(long qtyPerHour)
+    {
+        this.qtyPerHour += qtyPerHour;
+    }
 }
@@ -0,0 +1,271 @@
+package com.ericversteeg;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// timings and allocations of the plugin's hot paths, only collected while enabled
+// each metric has a histogram of nanoseconds with 8 buckets per power of two, so percentiles are within ~12%,
+// and recording is a few array writes. everything is measured on the client thread
+@Singleton
+class InventoryTotalMetrics
+{
+	static final int RENDER = 0;
+	static final int UPDATE_PLUGIN_STATE = 1;
+	static final int CONTAINER_CHANGED = 2;
+	static final int GAME_TICK = 3;
+	static final int LEDGER = 4;
+	static final int WRITE_SAVED_DATA = 5;
+
+	static final String[] NAMES = {
+			"render", "updatePluginState", "container changed", "game tick", "ledger", "writeSavedData"
+	};
+
+	// sizes rather than timings, holding the latest value
+	static final int PRICE_COUNT = 0;
+	static final int PRICE_MEMORY_BYTES = 1;
+	static final int SAVED_DATA_BYTES = 2;
+
+	static final String[] GAUGE_NAMES = {
+			"prices", "price memory bytes", "saved data bytes"
+	};
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = SUB_BUCKETS * 2 + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final Histogram[] histograms = new Histogram[NAMES.length];
+	private final long[] startNanos = new long[NAMES.length];
+	private final long[] startBytes = new long[NAMES.length];
+	// the saved data is encoded on the executor
+	private final AtomicLongArray gauges = new AtomicLongArray(GAUGE_NAMES.length);
+
+	private final com.sun.management.ThreadMXBean threadMXBean;
+	private volatile boolean enabled = false;
+
+	static class Histogram
+	{
+		private final long[] buckets = new long[BUCKET_COUNT];
+		private long count;
+		private long max;
+		private long totalNanos;
+		private long totalBytes;
+
+		private void record(long nanos, long bytes)
+		{
+			buckets[bucketIndex(nanos)]++;
+			count++;
+			max = Math.max(max, nanos);
+			totalNanos += nanos;
+			totalBytes += bytes;
+		}
+
+		long getCount()
+		{
+			return count;
+		}
+
+		long getMax()
+		{
+			return max;
+		}
+
+		long getMean()
+		{
+			return count == 0 ? 0 : totalNanos / count;
+		}
+
+		long getBytesPerCall()
+		{
+			return count == 0 ? 0 : totalBytes / count;
+		}
+
+		// upper bound of the bucket holding the percentile, never more than the max
+		long getPercentile(double percentile)
+		{
+			if (count == 0)
+			{
+				return 0;
+			}
+
+			long rank = (long) Math.ceil(percentile / 100 * count);
+			long seen = 0;
+			for (int i = 0; i < buckets.length; i++)
+			{
+				seen += buckets[i];
+				if (seen >= rank)
+				{
+					return Math.min(bucketUpperBound(i), max);
+				}
+			}
+			return max;
+		}
+
+		private Histogram copy()
+		{
+			Histogram copy = new Histogram();
+			System.arraycopy(buckets, 0, copy.buckets, 0, buckets.length);
+			copy.count = count;
+			copy.max = max;
+			copy.totalNanos = totalNanos;
+			copy.totalBytes = totalBytes;
+			return copy;
+		}
+	}
+
+	@Inject
+	InventoryTotalMetrics()
+	{
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported())
+		{
+			threadMXBean = (com.sun.management.ThreadMXBean) bean;
+		}
+		else
+		{
+			threadMXBean = null;
+		}
+
+		reset();
+	}
+
+	void setEnabled(boolean enabled)
+	{
+		if (threadMXBean != null && enabled)
+		{
+			threadMXBean.setThreadAllocatedMemoryEnabled(true);
+		}
+		this.enabled = enabled;
+	}
+
+	boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	void reset()
+	{
+		for (int i = 0; i < histograms.length; i++)
+		{
+			histograms[i] = new Histogram();
+		}
+	}
+
+	void begin(int metric)
+	{
+		if (!enabled)
+		{
+			return;
+		}
+
+		startBytes[metric] = allocatedBytes();
+		startNanos[metric] = System.nanoTime();
+	}
+
+	void end(int metric)
+	{
+		if (!enabled || startNanos[metric] == 0)
+		{
+			return;
+		}
+
+		long nanos = System.nanoTime() - startNanos[metric];
+		long bytes = allocatedBytes() - startBytes[metric];
+		startNanos[metric] = 0;
+
+		histograms[metric].record(nanos, Math.max(bytes, 0));
+	}
+
+	// copies, for reading off the client thread
+	Histogram[] snapshot()
+	{
+		Histogram[] copies = new Histogram[histograms.length];
+		for (int i = 0; i < histograms.length; i++)
+		{
+			copies[i] = histograms[i].copy();
+		}
+		return copies;
+	}
+
+	Histogram get(int metric)
+	{
+		return histograms[metric];
+	}
+
+	void setGauge(int gauge, long value)
+	{
+		gauges.set(gauge, value);
+	}
+
+	long getGauge(int gauge)
+	{
+		return gauges.get(gauge);
+	}
+
+	long[] snapshotGauges()
+	{
+		long[] copies = new long[GAUGE_NAMES.length];
+		for (int i = 0; i < copies.length; i++)
+		{
+			copies[i] = gauges.get(i);
+		}
+		return copies;
+	}
+
+	// one line per metric, times in microseconds, then one per gauge
+	static String format(Histogram[] histograms, long[] gauges)
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-18s %10s %10s %10s %10s %10s %12s%n",
+				"metric", "count", "mean us", "p50 us", "p99 us", "max us", "bytes/call"));
+
+		for (int i = 0; i < histograms.length; i++)
+		{
+			Histogram h = histograms[i];
+			sb.append(String.format("%-18s %10d %10.1f %10.1f %10.1f %10.1f %12d%n", NAMES[i], h.getCount(),
+					h.getMean() / 1000.0, h.getPercentile(50) / 1000.0, h.getPercentile(99) / 1000.0,
+					h.getMax() / 1000.0, h.getBytesPerCall()));
+		}
+
+		sb.append(String.format("%n"));
+		for (int i = 0; i < gauges.length; i++)
+		{
+			sb.append(String.format("%-18s %10d%n", GAUGE_NAMES[i], gauges[i]));
+		}
+
+		return sb.toString();
+	}
+
+	private long allocatedBytes()
+	{
+		return threadMXBean == null ? 0 : threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	static int bucketIndex(long nanos)
+	{
+		if (nanos < SUB_BUCKETS * 2)
+		{
+			return (int) Math.max(nanos, 0);
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return SUB_BUCKETS * 2 + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long bucketUpperBound(int index)
+	{
+		if (index < SUB_BUCKETS * 2)
+		{
+			return index;
+		}
+
+		int exponent = (index - SUB_BUCKETS * 2) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+		int subBucket = (index - SUB_BUCKETS * 2) % SUB_BUCKETS;
+		long lowerBound = (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+		return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+}
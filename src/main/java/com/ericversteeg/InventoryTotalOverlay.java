@@ -1,10 +1,7 @@
 package com.ericversteeg;
 
 import net.runelite.api.Client;
-import net.runelite.api.InventoryID;
-import net.runelite.api.ItemContainer;
 import net.runelite.api.ItemID;
-import net.runelite.api.widgets.ComponentID;
 import net.runelite.api.widgets.Widget;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.ui.FontManager;
@@ -12,55 +9,72 @@ import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.components.TextComponent;
+import net.runelite.client.util.AsyncBufferedImage;
 import net.runelite.client.util.ImageUtil;
 
 import javax.inject.Inject;
 import java.awt.*;
 import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
-import java.text.NumberFormat;
-import java.time.Instant;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.LinkedList;
-import java.util.Locale;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 class InventoryTotalOverlay extends Overlay
 {
 	private static final int TEXT_Y_OFFSET = 17;
-	private static final String PROFIT_LOSS_TIME_FORMAT = "%02d:%02d:%02d";
-	private static final String PROFIT_LOSS_TIME_NO_HOURS_FORMAT = "%02d:%02d";
 	private static final int HORIZONTAL_PADDING = 10;
-	private static final int BANK_CLOSE_DELAY = 1200;
 	private static final Color LEDGER_BACKGROUND_COLOR = new Color(27, 27, 27, 202);
 	static final int COINS = ItemID.COINS_995;
+	private static final int[] COIN_STACK_QUANTITIES = {1, 2, 3, 4, 5, 25, 100, 250, 1000, 10000};
+	private static final int COIN_STACK_SIZE = 15;
+	// the widest gp/hour text the run time is followed by, rates are at most 3 digits before the unit
+	private static final String GP_PER_HOUR_TEMPLATE = ", -000.0M/h";
 
 	private final Client client;
 	private final InventoryTotalPlugin plugin;
 	private final InventoryTotalConfig config;
 
 	private final ItemManager itemManager;
+	private final InventoryTotalMetrics metrics;
 
-	private Widget inventoryWidget;
-	private ItemContainer inventoryItemContainer;
-	private ItemContainer equipmentItemContainer;
+	private final InventoryTotalTextFormatter textFormatter = new InventoryTotalTextFormatter();
 
-	private boolean onceBank = false;
-
-	private boolean showInterstitial = false;
-
-	private boolean postNewRun = false;
-	private long newRunTime = 0;
+	private volatile boolean showInterstitial = false;
 
 	private int invX = -1;
 	private int invY = -1;
 	private int invW = -1;
 	private int invH = -1;
 
+	private BufferedImage totalImage;
+	private RoundRectangle2D totalImageShape;
+	private String totalImageText;
+	private String totalImageRunTimeText;
+	private Color totalImageBackgroundColor;
+	private Color totalImageBorderColor;
+	private Color totalImageTextColor;
+	private int totalImageCornerRadius;
+	private int totalImageCoinStack;
+	private int totalImageHeight;
+
+	// scaled coin stack sprites, one per quantity threshold
+	private final BufferedImage[] coinStackSprites = new BufferedImage[COIN_STACK_QUANTITIES.length];
+	// set from the image loader once a sprite has been scaled again, the total is redrawn on the next frame
+	// written after the sprite, so the render thread sees the new sprite once it sees this
+	private volatile boolean coinStackSpriteLoaded = false;
+
+	private BufferedImage ledgerImage;
+	private java.util.List<InventoryTotalLedgerItem> ledgerImageLedger;
+	// whether the total was hovered this frame, passed on to the plugin so it only builds the ledger while it's needed
+	private boolean ledgerHovered;
+
 	@Inject
-	private InventoryTotalOverlay(Client client, InventoryTotalPlugin plugin, InventoryTotalConfig config, ItemManager itemManager)
+	private InventoryTotalOverlay(Client client, InventoryTotalPlugin plugin, InventoryTotalConfig config, ItemManager itemManager,
+								  InventoryTotalMetrics metrics)
 	{
 		setPosition(OverlayPosition.DYNAMIC);
 		setLayer(OverlayLayer.ABOVE_WIDGETS);
@@ -70,136 +84,30 @@ class InventoryTotalOverlay extends Overlay
 		this.config = config;
 
 		this.itemManager = itemManager;
+		this.metrics = metrics;
 	}
 
-	void updatePluginState()
+	@Override
+	public Dimension render(Graphics2D graphics)
 	{
-		inventoryWidget = client.getWidget(ComponentID.INVENTORY_CONTAINER);
-
-		inventoryItemContainer = client.getItemContainer(InventoryID.INVENTORY);
-		equipmentItemContainer = client.getItemContainer(InventoryID.EQUIPMENT);
-
-		if (plugin.getPLToggleOverride() == null)
-		{
-			if (config.enableProfitLoss())
-			{
-				plugin.setMode(InventoryTotalMode.PROFIT_LOSS);
-			}
-			else
-			{
-				plugin.setMode(InventoryTotalMode.TOTAL);
-			}
-		}
-		else if (plugin.getPLToggleOverride() == InventoryTotalMode.PROFIT_LOSS)
-		{
-			plugin.setMode(InventoryTotalMode.PROFIT_LOSS);
-		}
-		else if (plugin.getPLToggleOverride() == InventoryTotalMode.TOTAL)
+		metrics.begin(InventoryTotalMetrics.RENDER);
+		ledgerHovered = false;
+		try
 		{
-			plugin.setMode(InventoryTotalMode.TOTAL);
+			return renderOverlay(graphics);
 		}
-
-		boolean isBank = false;
-
-		if (inventoryWidget == null || inventoryWidget.getCanvasLocation().getX() < 0 || inventoryWidget.isHidden())
+		finally
 		{
-			Widget [] altInventoryWidgets = new Widget[]
-			{
-				client.getWidget(ComponentID.BANK_INVENTORY_ITEM_CONTAINER),
-				client.getWidget(ComponentID.DEPOSIT_BOX_INVENTORY_ITEM_CONTAINER)
-			};
-
-			for (Widget altInventoryWidget: altInventoryWidgets)
-			{
-				inventoryWidget = altInventoryWidget;
-				if (inventoryWidget != null && !inventoryWidget.isHidden())
-				{
-					isBank = true;
-					if (!onceBank)
-					{
-						onceBank = true;
-					}
-
-					break;
-				}
-			}
-		}
-
-		if (isBank)
-		{
-			plugin.setState(InventoryTotalState.BANK);
-		}
-		else
-		{
-			plugin.setState(InventoryTotalState.RUN);
-		}
-
-		// before totals
-		boolean newRun = plugin.getPreviousState() == InventoryTotalState.BANK && plugin.getState() == InventoryTotalState.RUN;
-		plugin.getRunData().itemQtys.clear();
-
-		// totals
-		int [] inventoryTotals = plugin.getInventoryTotals(false);
-		int [] equipmentTotals = plugin.getEquipmentTotals(false);
-
-		int inventoryTotal = inventoryTotals[InventoryTotalPlugin.TOTAL_GP_GE_INDEX];
-		int equipmentTotal = equipmentTotals[0];
-
-		int inventoryTotalHA = inventoryTotals[InventoryTotalPlugin.TOTAL_GP_HA_INDEX];
-		int equipmentTotalHA = equipmentTotals[1];
-
-		int inventoryQty = inventoryTotals[InventoryTotalPlugin.TOTAL_QTY_INDEX];
-
-		int totalGp = 0;
-		if (config.priceType() == InventoryTotalPriceType.GRAND_EXCHANGE)
-		{
-			totalGp += inventoryTotal;
-		}
-		else
-		{
-			totalGp += inventoryTotalHA;
-		}
-
-		if (plugin.getState() == InventoryTotalState.RUN && plugin.getMode() == InventoryTotalMode.PROFIT_LOSS)
-		{
-			if (config.priceType() == InventoryTotalPriceType.GRAND_EXCHANGE)
-			{
-				totalGp += equipmentTotal;
-			}
-			else
-			{
-				totalGp += equipmentTotalHA;
-			}
-		}
-
-		plugin.setTotalGp(totalGp);
-		plugin.setTotalQty(inventoryQty);
-
-		// after totals
-		if (newRun)
-		{
-			plugin.onNewRun();
-
-			postNewRun = true;
-			newRunTime = Instant.now().toEpochMilli();
-		}
-		else if (plugin.getPreviousState() == InventoryTotalState.RUN && plugin.getState() == InventoryTotalState.BANK)
-		{
-			plugin.onBank();
-		}
-
-		// check post new run
-		if (postNewRun && (Instant.now().toEpochMilli() - newRunTime) > BANK_CLOSE_DELAY)
-		{
-			plugin.postNewRun();
-			postNewRun = false;
+			plugin.setLedgerHovered(ledgerHovered);
+			metrics.end(InventoryTotalMetrics.RENDER);
 		}
 	}
 
-	@Override
-	public Dimension render(Graphics2D graphics)
+	private Dimension renderOverlay(Graphics2D graphics)
 	{
-		updatePluginState();
+		// the plugin works everything out on the game tick, a frame only reads what it published
+		InventoryTotalSnapshot totals = plugin.getSnapshot();
+		Widget inventoryWidget = client.getWidget(plugin.getInventoryComponentId());
 
 		if (inventoryWidget != null)
 		{
@@ -221,42 +129,31 @@ class InventoryTotalOverlay extends Overlay
 
 		int height = 20;
 
-		String totalText = getTotalText(plugin.getProfitGp());
-
-		String formattedRunTime = getFormattedRunTime();
-		String runTimeText = null;
+		String totalText = getTotalText(totals.getProfitGp());
 
-		if (formattedRunTime != null)
-		{
-			runTimeText = " (" + formattedRunTime + ")";
-		}
+		String runTimeText = getRunTimeText();
 
-		long total = plugin.getProfitGp();
+		long total = totals.getProfitGp();
 
 		if (showInterstitial)
 		{
 			total = 0;
 
-			if (plugin.getMode() == InventoryTotalMode.PROFIT_LOSS)
+			if (totals.getMode() == InventoryTotalMode.PROFIT_LOSS)
 			{
 				totalText = "0";
 			}
-			else
-			{
-				totalText = getTotalText(plugin.getProfitGp());
-			}
 		}
 
-		renderTotal(config, graphics, plugin,
-				plugin.getTotalQty(), total, totalText, runTimeText, height);
+		renderTotal(config, graphics, totals,
+				totals.getInventoryQty(), total, totalText, runTimeText, height);
 
 		return null;
 	}
 
-	private void renderTotal(InventoryTotalConfig config, Graphics2D graphics, InventoryTotalPlugin plugin,
+	private void renderTotal(InventoryTotalConfig config, Graphics2D graphics, InventoryTotalSnapshot totals,
 							 long totalQty, long total, String totalText,
 							 String runTimeText, int height) {
-		int imageSize = 15;
 		boolean showCoinStack = config.showCoinStack();
 		int numCoins;
 		if (total > Integer.MAX_VALUE)
@@ -277,28 +174,73 @@ class InventoryTotalOverlay extends Overlay
 		}
 		numCoins = Math.abs(numCoins);
 
-		if ((totalQty == 0 && !config.showOnEmpty()) || (plugin.getState() == InventoryTotalState.BANK && !config.showWhileBanking())) {
+		if ((totalQty == 0 && !config.showOnEmpty()) || (totals.getState() == InventoryTotalState.BANK && !config.showWhileBanking())) {
 			return;
 		}
 
 		graphics.setFont(FontManager.getRunescapeSmallFont());
-		final int totalWidth = graphics.getFontMetrics().stringWidth(totalText);
 
-		int fixedRunTimeWidth = 0;
-		int actualRunTimeWidth = 0;
-		int imageWidthWithPadding = 0;
+		Color backgroundColor;
+		Color borderColor;
+		Color textColor;
 
-		if (runTimeText != null && runTimeText.length() >= 2) {
-			fixedRunTimeWidth = 5 * (runTimeText.length() - 2) + (3 * 2) + 5;
-			actualRunTimeWidth = graphics.getFontMetrics().stringWidth(runTimeText);
+		if (totals.getState() == InventoryTotalState.BANK || totals.getMode() == InventoryTotalMode.TOTAL) {
+			backgroundColor = config.totalColor();
+			borderColor = config.borderColor();
+			textColor = config.textColor();
+		}
+		else if (total >= 0) {
+			backgroundColor = config.profitColor();
+			borderColor = config.profitBorderColor();
+			textColor = config.profitTextColor();
+		}
+		else {
+			backgroundColor = config.lossColor();
+			borderColor = config.lossBorderColor();
+			textColor = config.lossTextColor();
 		}
 
-		if (showCoinStack)
+		int cornerRadius = config.cornerRadius();
+		if (!config.roundCorners())
 		{
-			imageWidthWithPadding = imageSize + 3;
+			cornerRadius = 0;
 		}
 
-		int width = totalWidth + fixedRunTimeWidth + imageWidthWithPadding + HORIZONTAL_PADDING * 2;
+		int coinStack = showCoinStack ? getCoinStackIndex(numCoins) : -1;
+
+		if (coinStackSpriteLoaded)
+		{
+			coinStackSpriteLoaded = false;
+			totalImage = null;
+		}
+
+		// the total only needs to be drawn again when its text, run time, colors or coin stack change
+		if (totalImage == null
+				|| !totalText.equals(totalImageText)
+				|| !Objects.equals(runTimeText, totalImageRunTimeText)
+				|| !backgroundColor.equals(totalImageBackgroundColor)
+				|| !borderColor.equals(totalImageBorderColor)
+				|| !textColor.equals(totalImageTextColor)
+				|| cornerRadius != totalImageCornerRadius
+				|| coinStack != totalImageCoinStack
+				|| height != totalImageHeight)
+		{
+			totalImage = createTotalImage(graphics, totalText, runTimeText, height,
+					backgroundColor, borderColor, textColor, cornerRadius, coinStack);
+			totalImageShape = new RoundRectangle2D.Double(0, 0, totalImage.getWidth() - 1, totalImage.getHeight() - 1,
+					cornerRadius, cornerRadius);
+
+			totalImageText = totalText;
+			totalImageRunTimeText = runTimeText;
+			totalImageBackgroundColor = backgroundColor;
+			totalImageBorderColor = borderColor;
+			totalImageTextColor = textColor;
+			totalImageCornerRadius = cornerRadius;
+			totalImageCoinStack = coinStack;
+			totalImageHeight = height;
+		}
+
+		int width = totalImage.getWidth() - 2;
 
 		int x = (invX + invW / 2) - (width / 2);
 		switch (config.horizontalAlignment())
@@ -329,49 +271,75 @@ class InventoryTotalOverlay extends Overlay
 		}
 		int y = invY - height - yOffset;
 
-		Color backgroundColor;
-		Color borderColor;
-		Color textColor;
+		graphics.drawImage(totalImage, x, y, null);
 
-		if (plugin.getState() == InventoryTotalState.BANK || plugin.getMode() == InventoryTotalMode.TOTAL) {
-			backgroundColor = config.totalColor();
-			borderColor = config.borderColor();
-			textColor = config.textColor();
-		}
-		else if (total >= 0) {
-			backgroundColor = config.profitColor();
-			borderColor = config.profitBorderColor();
-			textColor = config.profitTextColor();
+		net.runelite.api.Point mouse = client.getMouseCanvasPosition();
+		int mouseX = mouse.getX();
+		int mouseY = mouse.getY();
+
+		if (totalImageShape.contains(mouseX - x, mouseY - y) && totals.getState() != InventoryTotalState.BANK
+				&& !showInterstitial && config.showTooltip())
+		{
+			ledgerHovered = true;
+			renderLedger(graphics, totals, mouseX, mouseY);
 		}
-		else {
-			backgroundColor = config.lossColor();
-			borderColor = config.lossBorderColor();
-			textColor = config.lossTextColor();
+	}
+
+	private BufferedImage createTotalImage(Graphics2D graphics, String totalText, String runTimeText, int height,
+										   Color backgroundColor, Color borderColor, Color textColor,
+										   int cornerRadius, int coinStack)
+	{
+		int imageSize = COIN_STACK_SIZE;
+		boolean showCoinStack = coinStack >= 0;
+
+		FontMetrics fontMetrics = graphics.getFontMetrics();
+		final int totalWidth = fontMetrics.stringWidth(totalText);
+
+		int fixedRunTimeWidth = 0;
+		int actualRunTimeWidth = 0;
+		int imageWidthWithPadding = 0;
+
+		if (runTimeText != null && runTimeText.length() >= 2) {
+			// the rate part is sized from a template so the pill doesn't change width as its digits change
+			int rateStart = runTimeText.indexOf(',');
+			int runTimeLength = rateStart < 0 ? runTimeText.length() : rateStart + 1;
+			fixedRunTimeWidth = 5 * (runTimeLength - 2) + (3 * 2) + 5;
+			if (rateStart >= 0)
+			{
+				fixedRunTimeWidth += fontMetrics.stringWidth(GP_PER_HOUR_TEMPLATE);
+			}
+			actualRunTimeWidth = fontMetrics.stringWidth(runTimeText);
 		}
 
-		int cornerRadius = config.cornerRadius();
-		if (!config.roundCorners())
+		if (showCoinStack)
 		{
-			cornerRadius = 0;
+			imageWidthWithPadding = imageSize + 3;
 		}
 
+		int width = totalWidth + fixedRunTimeWidth + imageWidthWithPadding + HORIZONTAL_PADDING * 2;
+
+		BufferedImage image = new BufferedImage(width + 2, height + 2, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D imageGraphics = image.createGraphics();
+		imageGraphics.setRenderingHints(graphics.getRenderingHints());
+		imageGraphics.setFont(graphics.getFont());
+
 		int containerAlpha = backgroundColor.getAlpha();
 
 		if (containerAlpha > 0) {
-			graphics.setColor(borderColor);
-			graphics.drawRoundRect(x, y, width + 1, height + 1, cornerRadius, cornerRadius);
+			imageGraphics.setColor(borderColor);
+			imageGraphics.drawRoundRect(0, 0, width + 1, height + 1, cornerRadius, cornerRadius);
 		}
 
-		graphics.setColor(backgroundColor);
+		imageGraphics.setColor(backgroundColor);
 
-		graphics.fillRoundRect(x + 1, y + 1, width, height, cornerRadius, cornerRadius);
+		imageGraphics.fillRoundRect(1, 1, width, height, cornerRadius, cornerRadius);
 
 		TextComponent textComponent = new TextComponent();
 
 		textComponent.setColor(textColor);
 		textComponent.setText(totalText);
-		textComponent.setPosition(new Point(x + HORIZONTAL_PADDING, y + TEXT_Y_OFFSET));
-		textComponent.render(graphics);
+		textComponent.setPosition(new Point(HORIZONTAL_PADDING, TEXT_Y_OFFSET));
+		textComponent.render(imageGraphics);
 
 		if (runTimeText != null)
 		{
@@ -379,48 +347,97 @@ class InventoryTotalOverlay extends Overlay
 
 			textComponent.setColor(textColor);
 			textComponent.setText(runTimeText);
-			textComponent.setPosition(new Point((x + width) - HORIZONTAL_PADDING - actualRunTimeWidth - imageWidthWithPadding, y + TEXT_Y_OFFSET));
-			textComponent.render(graphics);
+			textComponent.setPosition(new Point(width - HORIZONTAL_PADDING - actualRunTimeWidth - imageWidthWithPadding, TEXT_Y_OFFSET));
+			textComponent.render(imageGraphics);
 		}
 
 		if (showCoinStack)
 		{
 			int imageOffset = 4;
 
-			BufferedImage coinsImage = itemManager.getImage(ItemID.COINS_995, numCoins, false);
-			coinsImage = ImageUtil.resizeImage(coinsImage, imageSize, imageSize);
-			graphics.drawImage(coinsImage, (x + width) - HORIZONTAL_PADDING - imageSize + imageOffset, y + 3, null);
+			BufferedImage coinsImage = getCoinStackSprite(coinStack);
+			imageGraphics.drawImage(coinsImage, width - HORIZONTAL_PADDING - imageSize + imageOffset, 3, null);
 		}
 
-		net.runelite.api.Point mouse = client.getMouseCanvasPosition();
-		int mouseX = mouse.getX();
-		int mouseY = mouse.getY();
+		imageGraphics.dispose();
 
-		RoundRectangle2D roundRectangle2D = new RoundRectangle2D.Double(x, y, width + 1, height + 1, cornerRadius, cornerRadius);
-		if (roundRectangle2D.contains(mouseX, mouseY) && plugin.getState() != InventoryTotalState.BANK
-				&& (Instant.now().toEpochMilli() - newRunTime) > (BANK_CLOSE_DELAY + 500) && config.showTooltip())
+		return image;
+	}
+
+	// the coin stack sprite only changes at a few quantities, so the total is bucketed by the highest one it reaches
+	private static int getCoinStackIndex(int numCoins)
+	{
+		for (int i = COIN_STACK_QUANTITIES.length - 1; i >= 0; i--)
 		{
-			if (plugin.getMode() == InventoryTotalMode.PROFIT_LOSS)
+			if (numCoins >= COIN_STACK_QUANTITIES[i])
 			{
-				renderProfitLossLedger(graphics);
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	private BufferedImage getCoinStackSprite(int coinStack)
+	{
+		BufferedImage sprite = coinStackSprites[coinStack];
+
+		if (sprite == null)
+		{
+			AsyncBufferedImage coinsImage = itemManager.getImage(ItemID.COINS_995, COIN_STACK_QUANTITIES[coinStack], false);
+			sprite = ImageUtil.resizeImage(coinsImage, COIN_STACK_SIZE, COIN_STACK_SIZE);
+			coinStackSprites[coinStack] = sprite;
+
+			// item images load asynchronously, so scale it again and redraw the total once it's available
+			coinsImage.onLoaded(() ->
+			{
+				coinStackSprites[coinStack] = ImageUtil.resizeImage(coinsImage, COIN_STACK_SIZE, COIN_STACK_SIZE);
+				coinStackSpriteLoaded = true;
+			});
+		}
+
+		return sprite;
+	}
+
+	private void renderLedger(Graphics2D graphics, InventoryTotalSnapshot totals, int mouseX, int mouseY)
+	{
+		// the plugin publishes a ledger at most once per tick while hovering, so it's drawn once per ledger and reused
+		// the ledger is built on the tick after the hover starts, until then the last one drawn is shown if it's current
+		java.util.List<InventoryTotalLedgerItem> ledger = totals.getLedger();
+		if (ledger != null && ledger != ledgerImageLedger)
+		{
+			if (totals.getMode() == InventoryTotalMode.PROFIT_LOSS)
+			{
+				ledgerImage = createProfitLossLedgerImage(graphics, ledger);
 			}
 			else
 			{
-				renderLedger(graphics);
+				ledgerImage = createLedgerImage(graphics, ledger);
 			}
+
+			ledgerImageLedger = ledger;
+		}
+
+		if (ledgerImage == null || ledger != ledgerImageLedger)
+		{
+			return;
 		}
+
+		int x = mouseX - (ledgerImage.getWidth() - 1) - 10;
+		int y = mouseY - (ledgerImage.getHeight() - 1) / 2;
+
+		graphics.drawImage(ledgerImage, x, y, null);
 	}
 
-	private void renderLedger(Graphics2D graphics)
+	private BufferedImage createLedgerImage(Graphics2D graphics, java.util.List<InventoryTotalLedgerItem> inventoryLedger)
 	{
 		FontMetrics fontMetrics = graphics.getFontMetrics();
 
-		java.util.List<InventoryTotalLedgerItem> ledger = plugin.getInventoryLedger().stream()
+		java.util.List<InventoryTotalLedgerItem> ledger = inventoryLedger.stream()
 				.filter(item -> item.getQty() != 0).collect(Collectors.toList());
 
 		if (ledger.isEmpty())
 		{
-			return;
+			return null;
 		}
 
 		ledger = ledger.stream().sorted(Comparator.comparingInt(o ->
@@ -436,14 +453,14 @@ class InventoryTotalOverlay extends Overlay
 			if (item.getQty() != 0 && Math.abs(item.getQty()) != 1
 					&& !item.getDescription().contains("Total") && !item.getDescription().contains("Coins"))
 			{
-				desc = NumberFormat.getInstance(Locale.ENGLISH).format(Math.abs(item.getQty())) + " " + desc;
+				desc = textFormatter.formatExactGp(Math.abs(item.getQty())) + " " + desc;
 			}
 			return desc;
 		}).toArray(String[]::new);
 		Integer [] prices = ledger.stream().map(item -> item.getQty() * item.getAmount()).toArray(Integer[]::new);
 
 		String [] formattedPrices = Arrays.stream(prices).map(
-				p -> NumberFormat.getInstance(Locale.ENGLISH).format(p)
+				textFormatter::formatExactGp
 		).toArray(String[]::new);
 
 		Integer [] rowWidths = IntStream.range(0, descriptions.length).mapToObj(
@@ -453,10 +470,6 @@ class InventoryTotalOverlay extends Overlay
 
 		Arrays.sort(rowWidths);
 
-		net.runelite.api.Point mouse = client.getMouseCanvasPosition();
-		int mouseX = mouse.getX();
-		int mouseY = mouse.getY();
-
 		int sectionPadding = 5;
 
 		int rowW = rowWidths[rowWidths.length - 1] + 20 + HORIZONTAL_PADDING + 2;
@@ -464,19 +477,24 @@ class InventoryTotalOverlay extends Overlay
 
 		int h = descriptions.length * rowH + TEXT_Y_OFFSET / 2 + sectionPadding + 1;
 
-		int x = mouseX - rowW - 10;
-		int y = mouseY - h / 2;
+		int x = 0;
+		int y = 0;
+
+		BufferedImage image = new BufferedImage(rowW + 1, h + 1, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D imageGraphics = image.createGraphics();
+		imageGraphics.setRenderingHints(graphics.getRenderingHints());
+		imageGraphics.setFont(graphics.getFont());
 
 		int cornerRadius = 0;
 
-		graphics.setColor(LEDGER_BACKGROUND_COLOR);
-		graphics.fillRoundRect(x, y, rowW, h, cornerRadius, cornerRadius);
+		imageGraphics.setColor(LEDGER_BACKGROUND_COLOR);
+		imageGraphics.fillRoundRect(x, y, rowW, h, cornerRadius, cornerRadius);
 
 		int borderWidth = 1;
 
-		graphics.setColor(Color.decode("#0b0b0b"));
-		graphics.setStroke(new BasicStroke(borderWidth));
-		graphics.drawRoundRect(x - borderWidth / 2, y - borderWidth / 2,
+		imageGraphics.setColor(Color.decode("#0b0b0b"));
+		imageGraphics.setStroke(new BasicStroke(borderWidth));
+		imageGraphics.drawRoundRect(x - borderWidth / 2, y - borderWidth / 2,
 				rowW + borderWidth / 2, h + borderWidth / 2, cornerRadius, cornerRadius);
 
 		if (descriptions.length == prices.length)
@@ -517,13 +535,13 @@ class InventoryTotalOverlay extends Overlay
 				textComponent.setText(desc);
 
 				textComponent.setPosition(new Point(textX, textY));
-				textComponent.render(graphics);
+				textComponent.render(imageGraphics);
 
 				prevDesc = desc;
 
 				int price = prices[i];
 
-				String formattedPrice = NumberFormat.getInstance(Locale.ENGLISH).format(price);
+				String formattedPrice = formattedPrices[i];
 
 				int textW = fontMetrics.stringWidth(formattedPrice);
 				textX = x + rowW - HORIZONTAL_PADDING / 2 - textW;
@@ -542,16 +560,20 @@ class InventoryTotalOverlay extends Overlay
 				textComponent.setText(formattedPrice);
 
 				textComponent.setPosition(new Point(textX, textY));
-				textComponent.render(graphics);
+				textComponent.render(imageGraphics);
 			}
 		}
+
+		imageGraphics.dispose();
+
+		return image;
 	}
 
-	private void renderProfitLossLedger(Graphics2D graphics)
+	private BufferedImage createProfitLossLedgerImage(Graphics2D graphics, java.util.List<InventoryTotalLedgerItem> profitLossLedger)
 	{
 		FontMetrics fontMetrics = graphics.getFontMetrics();
 
-		java.util.List<InventoryTotalLedgerItem> ledger = plugin.getProfitLossLedger().stream()
+		java.util.List<InventoryTotalLedgerItem> ledger = profitLossLedger.stream()
 				.filter(item -> item.getQty() != 0).collect(Collectors.toList());
 
 		java.util.List<InventoryTotalLedgerItem> gain = ledger.stream().filter(item -> item.getQty() > 0)
@@ -569,7 +591,7 @@ class InventoryTotalOverlay extends Overlay
 
 		if (ledger.isEmpty())
 		{
-			return;
+			return null;
 		}
 
 		int totalGain = gain.stream().mapToInt(item -> item.getQty() * item.getAmount()).sum();
@@ -585,14 +607,19 @@ class InventoryTotalOverlay extends Overlay
 			if (item.getQty() != 0 && Math.abs(item.getQty()) != 1
 					&& !item.getDescription().contains("Total") && !item.getDescription().contains("Coins"))
 			{
-				desc = NumberFormat.getInstance(Locale.ENGLISH).format(Math.abs(item.getQty())) + " " + desc;
+				desc = textFormatter.formatExactGp(Math.abs(item.getQty())) + " " + desc;
+			}
+			// only set when items per hour are shown
+			if (item.getQtyPerHour() != 0 && !item.getDescription().contains("Coins"))
+			{
+				desc = desc + " (" + textFormatter.formatShortGp(item.getQtyPerHour()) + "/h)";
 			}
 			return desc;
 		}).toArray(String[]::new);
 		Integer [] prices = ledger.stream().map(item -> item.getQty() * item.getAmount()).toArray(Integer[]::new);
 
 		String [] formattedPrices = Arrays.stream(prices).map(
-				p -> NumberFormat.getInstance(Locale.ENGLISH).format(p)
+				textFormatter::formatExactGp
 		).toArray(String[]::new);
 
 		Integer [] rowWidths = IntStream.range(0, descriptions.length).mapToObj(
@@ -602,10 +629,6 @@ class InventoryTotalOverlay extends Overlay
 
 		Arrays.sort(rowWidths);
 
-		net.runelite.api.Point mouse = client.getMouseCanvasPosition();
-		int mouseX = mouse.getX();
-		int mouseY = mouse.getY();
-
 		int sectionPadding = 5;
 
 		int rowW = rowWidths[rowWidths.length - 1] + 20 + HORIZONTAL_PADDING + 2;
@@ -619,19 +642,24 @@ class InventoryTotalOverlay extends Overlay
 
 		int h = descriptions.length * rowH + TEXT_Y_OFFSET / 2 + sectionPaddingTotal + 1;
 
-		int x = mouseX - rowW - 10;
-		int y = mouseY - h / 2;
+		int x = 0;
+		int y = 0;
+
+		BufferedImage image = new BufferedImage(rowW + 1, h + 1, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D imageGraphics = image.createGraphics();
+		imageGraphics.setRenderingHints(graphics.getRenderingHints());
+		imageGraphics.setFont(graphics.getFont());
 
 		int cornerRadius = 0;
 
-		graphics.setColor(LEDGER_BACKGROUND_COLOR);
-		graphics.fillRoundRect(x, y, rowW, h, cornerRadius, cornerRadius);
+		imageGraphics.setColor(LEDGER_BACKGROUND_COLOR);
+		imageGraphics.fillRoundRect(x, y, rowW, h, cornerRadius, cornerRadius);
 
 		int borderWidth = 1;
 
-		graphics.setColor(Color.decode("#0b0b0b"));
-		graphics.setStroke(new BasicStroke(borderWidth));
-		graphics.drawRoundRect(x - borderWidth / 2, y - borderWidth / 2,
+		imageGraphics.setColor(Color.decode("#0b0b0b"));
+		imageGraphics.setStroke(new BasicStroke(borderWidth));
+		imageGraphics.drawRoundRect(x - borderWidth / 2, y - borderWidth / 2,
 				rowW + borderWidth / 2, h + borderWidth / 2, cornerRadius, cornerRadius);
 
 		if (descriptions.length == prices.length)
@@ -672,13 +700,13 @@ class InventoryTotalOverlay extends Overlay
 				textComponent.setText(desc);
 
 				textComponent.setPosition(new Point(textX, textY));
-				textComponent.render(graphics);
+				textComponent.render(imageGraphics);
 
 				prevDesc = desc;
 
 				int price = prices[i];
 
-				String formattedPrice = NumberFormat.getInstance(Locale.ENGLISH).format(price);
+				String formattedPrice = formattedPrices[i];
 
 				int textW = fontMetrics.stringWidth(formattedPrice);
 				textX = x + rowW - HORIZONTAL_PADDING / 2 - textW;
@@ -698,72 +726,21 @@ class InventoryTotalOverlay extends Overlay
 				textComponent.setText(formattedPrice);
 
 				textComponent.setPosition(new Point(textX, textY));
-				textComponent.render(graphics);
-			}
-		}
-	}
-
-	private String getTotalText(long total)
-	{
-		if (config.showExactGp())
-		{
-			return getExactFormattedGp(total);
-		}
-		else
-		{
-			String totalText = getFormattedGp(total);
-			return totalText.replace(".0", "");
-		}
-	}
-
-	private String getFormattedGp(long total)
-	{
-		if (total >= 1000000000 || total <= -1000000000)
-		{
-			double bTotal = total / 1000000000.0;
-			return getTruncatedTotal(bTotal) + "B";
-		}
-		else
-		{
-			if (total >= 1000000 || total <= -1000000)
-			{
-				double mTotal = total / 1000000.0;
-				return getTruncatedTotal(mTotal) + "M";
-			}
-			else
-			{
-				if (total >= 1000 || total <= -1000)
-				{
-					double kTotal = total / 1000.0;
-					return getTruncatedTotal(kTotal) + "K";
-				}
-				else
-				{
-					return getExactFormattedGp(total);
-				}
+				textComponent.render(imageGraphics);
 			}
 		}
-	}
 
-	private String getTruncatedTotal(double total)
-	{
-		String totalString = Double.toString(total);
+		imageGraphics.dispose();
 
-		int dotIndex = totalString.indexOf('.');
-		if (dotIndex < totalString.length() - 1)
-		{
-			return totalString.substring(0, dotIndex + 2);
-		}
-
-		return totalString;
+		return image;
 	}
 
-	private String getExactFormattedGp(long total)
+	private String getTotalText(long total)
 	{
-		return NumberFormat.getInstance(Locale.ENGLISH).format(total);
+		return textFormatter.formatGp(total, config.showExactGp());
 	}
 
-	private String getFormattedRunTime()
+	private String getRunTimeText()
 	{
 		long runTime = plugin.elapsedRunTime();
 
@@ -772,31 +749,12 @@ class InventoryTotalOverlay extends Overlay
 			return null;
 		}
 
-		long totalSecs = runTime / 1000;
-		long totalMins = totalSecs / 60;
-
-		long hrs = totalMins / 60;
-		long mins = totalMins % 60;
-		long secs = totalSecs % 60;
-
-		if (hrs > 0)
-		{
-			return String.format(PROFIT_LOSS_TIME_FORMAT, hrs, mins, secs);
-		}
-		else
+		if (config.showGpPerHour() && plugin.isGpPerHourAvailable())
 		{
-			return String.format(PROFIT_LOSS_TIME_NO_HOURS_FORMAT, mins, secs);
+			return textFormatter.formatRunTime(runTime, plugin.getGpPerHour());
 		}
-	}
 
-	public ItemContainer getInventoryItemContainer()
-	{
-		return inventoryItemContainer;
-	}
-
-	public ItemContainer getEquipmentItemContainer()
-	{
-		return equipmentItemContainer;
+		return textFormatter.formatRunTime(runTime);
 	}
 
 	public void showInterstitial()
@@ -0,0 +1,61 @@
+package com.ericversteeg;
+
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+import javax.inject.Inject;
+import java.awt.*;
+
+// shown with the hidden performance debug option, timings are p50 / p99 / max in microseconds
+class InventoryTotalPerfOverlay extends OverlayPanel
+{
+	private final InventoryTotalMetrics metrics;
+
+	@Inject
+	private InventoryTotalPerfOverlay(InventoryTotalMetrics metrics)
+	{
+		setPosition(OverlayPosition.TOP_LEFT);
+
+		this.metrics = metrics;
+	}
+
+	@Override
+	public Dimension render(Graphics2D graphics)
+	{
+		panelComponent.setPreferredSize(new Dimension(260, 0));
+
+		panelComponent.getChildren().add(TitleComponent.builder()
+				.text("Inventory Total (p50 / p99 / max us)")
+				.build());
+
+		for (int i = 0; i < InventoryTotalMetrics.NAMES.length; i++)
+		{
+			InventoryTotalMetrics.Histogram histogram = metrics.get(i);
+
+			panelComponent.getChildren().add(LineComponent.builder()
+					.left(InventoryTotalMetrics.NAMES[i])
+					.right(String.format("%.0f / %.0f / %.0f", histogram.getPercentile(50) / 1000.0,
+							histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0))
+					.build());
+
+			panelComponent.getChildren().add(LineComponent.builder()
+					.left("  calls, bytes/call")
+					.right(histogram.getCount() + ", " + histogram.getBytesPerCall())
+					.leftColor(Color.LIGHT_GRAY)
+					.rightColor(Color.LIGHT_GRAY)
+					.build());
+		}
+
+		for (int i = 0; i < InventoryTotalMetrics.GAUGE_NAMES.length; i++)
+		{
+			panelComponent.getChildren().add(LineComponent.builder()
+					.left(InventoryTotalMetrics.GAUGE_NAMES[i])
+					.right(Long.toString(metrics.getGauge(i)))
+					.build());
+		}
+
+		return super.render(graphics);
+	}
+}
@@ -0,0 +1,121 @@
+package com.ericversteeg;
+
+import com.google.gson.Gson;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.config.ConfigManager;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// write-behind for the saved run data
+// callers hand over a copy of the run data and return immediately, the encoding and config write happen
+// on the executor, and saves requested before a pending one is written replace it instead of adding another write
+@Slf4j
+class InventoryTotalPersister
+{
+	static final String DATA_KEY = "inventory_total_data";
+
+	// coalesce everything saved within about a game tick
+	private static final long WRITE_DELAY_MS = 600;
+
+	private final Gson gson;
+	private final ConfigManager configManager;
+	private final ScheduledExecutorService executor;
+	private final InventoryTotalMetrics metrics;
+
+	private final AtomicReference<PendingWrite> pendingWrite = new AtomicReference<>();
+
+	private static class PendingWrite
+	{
+		private final String profile;
+		private final InventoryTotalRunData runData;
+
+		private PendingWrite(String profile, InventoryTotalRunData runData)
+		{
+			this.profile = profile;
+			this.runData = runData;
+		}
+	}
+
+	@Inject
+	InventoryTotalPersister(Gson gson, ConfigManager configManager, ScheduledExecutorService executor,
+							InventoryTotalMetrics metrics)
+	{
+		this.gson = gson;
+		this.configManager = configManager;
+		this.executor = executor;
+		this.metrics = metrics;
+	}
+
+	// runData must not be modified after it's handed over
+	void save(String profile, InventoryTotalRunData runData)
+	{
+		if (profile == null)
+		{
+			return;
+		}
+
+		PendingWrite previous = pendingWrite.getAndSet(new PendingWrite(profile, runData));
+
+		// a write for another profile can't be coalesced with this one
+		if (previous != null && !previous.profile.equals(profile))
+		{
+			executor.execute(() -> write(previous));
+		}
+
+		if (previous == null)
+		{
+			executor.schedule(this::flush, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	// writes any pending save on the calling thread
+	// taking the save and writing it are done together, otherwise a flush that took an older save could be
+	// preempted and write it after a later flush has written newer data
+	synchronized void flush()
+	{
+		PendingWrite write = pendingWrite.getAndSet(null);
+		if (write != null)
+		{
+			write(write);
+		}
+	}
+
+	InventoryTotalRunData load(String profile)
+	{
+		String data = configManager.getConfiguration(InventoryTotalConfig.GROUP, profile, DATA_KEY);
+
+		if (!InventoryTotalRunDataCodec.isEncoded(data))
+		{
+			// saved before the binary format, the next save converts it
+			return gson.fromJson(data, InventoryTotalRunData.class);
+		}
+
+		try
+		{
+			return InventoryTotalRunDataCodec.decode(data);
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to load inventory total data", e);
+			return null;
+		}
+	}
+
+	private synchronized void write(PendingWrite write)
+	{
+		try
+		{
+			String data = InventoryTotalRunDataCodec.encode(write.runData);
+			metrics.setGauge(InventoryTotalMetrics.SAVED_DATA_BYTES, data.length());
+			configManager.setConfiguration(InventoryTotalConfig.GROUP, write.profile, DATA_KEY, data);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			log.warn("Unable to save inventory total data", e);
+		}
+	}
+}
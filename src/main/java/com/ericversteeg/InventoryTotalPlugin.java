@@ -1,8 +1,18 @@
 package com.ericversteeg;
 
-import com.google.gson.Gson;
 import com.google.inject.Provides;
+import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.ItemContainerChanged;
+import net.runelite.api.events.ScriptPostFired;
+import net.runelite.api.events.VarbitChanged;
+import net.runelite.api.events.WidgetClosed;
+import net.runelite.api.events.WidgetLoaded;
+import net.runelite.api.widgets.ComponentID;
+import net.runelite.api.widgets.InterfaceID;
+import net.runelite.api.widgets.Widget;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.config.Keybind;
@@ -18,24 +28,33 @@ import net.runelite.client.ui.overlay.OverlayManager;
 import net.runelite.client.util.HotkeyListener;
 
 import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.IntToLongFunction;
 
 @PluginDescriptor(
 	name = "Inventory Total",
 	description = "Totals item prices in your inventory."
 )
-
+@Slf4j
 public class InventoryTotalPlugin extends Plugin
 {
 	static final int COINS = ItemID.COINS_995;
-	static final int TOTAL_GP_GE_INDEX = 0;
-	static final int TOTAL_GP_HA_INDEX = 1;
-	static final int TOTAL_QTY_INDEX = 2;
 	static final int NO_PROFIT_LOSS_TIME = -1;
 	static final int RUNEPOUCH_ITEM_ID = 12791;
 	static final int DIVINE_RUNEPOUCH_ITEM_ID = 27281;
+	// ticks after the bank closes before the run's starting value is taken, to handle same tick bank closing
+	private static final int BANK_CLOSE_DELAY_TICKS = 2;
+	// about every 30 seconds, price reloads are much further apart
+	private static final int PRICE_PROBE_TICKS = 50;
+	private static final int[] ALT_INVENTORY_COMPONENT_IDS = {
+			ComponentID.BANK_INVENTORY_ITEM_CONTAINER, ComponentID.DEPOSIT_BOX_INVENTORY_ITEM_CONTAINER
+	};
 
 	@Inject
 	private InventoryTotalOverlay overlay;
@@ -59,28 +78,76 @@ public class InventoryTotalPlugin extends Plugin
 	private ConfigManager configManager;
 
 	@Inject
-	private Gson gson;
+	private InventoryTotalPersister persister;
+
+	@Inject
+	private InventoryTotalRunHistory runHistory;
 
 	@Inject
 	private KeyManager keyManager;
 
+	@Inject
+	private ScheduledExecutorService executor;
+
+	@Inject
+	private InventoryTotalMetrics metrics;
+
+	@Inject
+	private InventoryTotalPerfOverlay perfOverlay;
+
 	private String profileKey = "";
 
 	private InventoryTotalRunData runData;
 
+	private InventoryTotalPriceFile priceFile;
+	private int pricedFileVersion = 0;
+	private InventoryTotalItemManagerProvider itemManagerProvider;
+	private InventoryTotalRecordingItemProvider itemProvider;
+	private InventoryTotalValuationEngine valuationEngine;
+
 	private InventoryTotalMode mode = InventoryTotalMode.TOTAL;
 
 	private InventoryTotalState state = InventoryTotalState.NONE;
 	private InventoryTotalState prevState = InventoryTotalState.NONE;
 
-	private long totalGp = 0;
-	private long totalQty = 0;
+	// the inventory widget that's showing, polled on the game tick so the overlay only has to look it up
+	private volatile int inventoryComponentId = ComponentID.INVENTORY_CONTAINER;
+	private int postNewRunTicks = 0;
+
+	// totals follow container changes as they happen, the snapshot for the overlay is published on the next game tick
+	private boolean totalsDirty = true;
+	private volatile InventoryTotalSnapshot snapshot = InventoryTotalSnapshot.EMPTY;
+
+	// set by the overlay while the total is hovered, the ledger is only built then
+	private volatile boolean ledgerHovered = false;
+
+	// set when prices, the ignore list or the run data change and everything held has to be valued again
+	private boolean rebuildTotals = true;
+
+	private boolean runepouchDirty = true;
+	private final int[] runepouchIds = new int[RUNEPOUCH_AMOUNT_VARBITS.length];
+	private final int[] runepouchQtys = new int[RUNEPOUCH_AMOUNT_VARBITS.length];
+
+	private volatile long runStartTime = 0;
+
+	private InventoryTotalTickRecorder tickRecorder;
 
-	private long runStartTime = 0;
+	private final InventoryTotalRateEngine rateEngine = new InventoryTotalRateEngine();
+	private boolean rebaseRates = false;
 
-	private long lastWriteSaveTime = 0;
+	// the rates as of the last tick, for the overlay
+	private volatile boolean ratesRunning = false;
+	private volatile long recentGpPerHour = 0;
+	private volatile long runGpPerHour = 0;
 
-	private InventoryTotalMode plToggleOverride = null;
+	private InventoryTotalEventRecorder eventRecorder;
+
+	private interface RecordedEvent
+	{
+		void record(InventoryTotalEventRecorder recorder) throws IOException;
+	}
+
+	private volatile InventoryTotalMode plToggleOverride = null;
 	private KeyListener plToggleKeyListener;
 
 	// from ClueScrollPlugin
@@ -96,9 +163,31 @@ public class InventoryTotalPlugin extends Plugin
 	{
 		overlayManager.add(overlay);
 
+		priceFile = new InventoryTotalPriceFile(InventoryTotalPriceFile.PRICE_FILE, executor);
+		pricedFileVersion = 0;
+		itemManagerProvider = new InventoryTotalItemManagerProvider(itemManager, createGePrices());
+		itemProvider = new InventoryTotalRecordingItemProvider(itemManagerProvider);
+		valuationEngine = new InventoryTotalValuationEngine(itemProvider);
+
 		runData = new InventoryTotalRunData();
+		compileIgnoredItems();
+		valuationEngine.reset(runData);
+		snapshot = InventoryTotalSnapshot.EMPTY;
+		rebuildTotals = true;
+
+		// taken from the widgets on the next tick, the bank may already be open
+		state = InventoryTotalState.NONE;
+		prevState = InventoryTotalState.NONE;
+		postNewRunTicks = 0;
 
 		registerPLToggleKey();
+
+		if (config.recordEvents())
+		{
+			clientThread.invokeLater(this::startRecording);
+		}
+
+		updatePerfDebug();
 	}
 
 	@Override
@@ -107,44 +196,414 @@ public class InventoryTotalPlugin extends Plugin
 		overlayManager.remove(overlay);
 
 		unregisterPLToggleKey();
+
+		if (metrics.isEnabled())
+		{
+			stopPerfDebug();
+		}
+
+		closeTickSeries();
+		clientThread.invokeLater(this::stopRecording);
+
+		persister.flush();
 	}
 
 	@Subscribe
 	public void onRuneScapeProfileChanged(RuneScapeProfileChanged e)
 	{
+		// finish writing the previous profile's data before loading the new one
+		persister.flush();
+
 		profileKey = configManager.getRSProfileKey();
 		if (profileKey != null)
 		{
 			runData = getSavedData();
+			compileIgnoredItems();
+			rebuildTotals = true;
+
+			if (eventRecorder != null)
+			{
+				record(r -> r.recordRunData(client.getTickCount(), InventoryTotalRunDataCodec.encode(runData)));
+			}
+		}
+	}
+
+	@Subscribe
+	public void onItemContainerChanged(ItemContainerChanged event)
+	{
+		int containerId = event.getContainerId();
+
+		// only the valued containers are measured
+		if (containerId != InventoryID.INVENTORY.getId() && containerId != InventoryID.EQUIPMENT.getId()
+				&& (containerId != InventoryID.BANK.getId() || !config.includeBank()))
+		{
+			return;
+		}
+
+		metrics.begin(InventoryTotalMetrics.CONTAINER_CHANGED);
+
+		if (containerId == InventoryID.INVENTORY.getId())
+		{
+			valuationEngine.update(InventoryTotalValuationEngine.INVENTORY, event.getItemContainer().getItems());
+
+			// the rune pouch may have been added or removed
+			runepouchDirty = true;
+			totalsDirty = true;
+		}
+		else if (containerId == InventoryID.EQUIPMENT.getId())
+		{
+			valuationEngine.update(InventoryTotalValuationEngine.EQUIPMENT, event.getItemContainer().getItems());
+			totalsDirty = true;
+		}
+		else
+		{
+			valuationEngine.updateBank(event.getItemContainer().getItems());
+			totalsDirty = true;
+		}
+
+		metrics.end(InventoryTotalMetrics.CONTAINER_CHANGED);
+
+		if (eventRecorder != null)
+		{
+			record(r -> r.recordContainer(client.getTickCount(), containerId, event.getItemContainer().getItems()));
+		}
+	}
+
+	@Subscribe
+	public void onVarbitChanged(VarbitChanged event)
+	{
+		int varbitId = event.getVarbitId();
+		for (int i = 0; i < RUNEPOUCH_AMOUNT_VARBITS.length; i++)
+		{
+			if (varbitId == RUNEPOUCH_AMOUNT_VARBITS[i] || varbitId == RUNEPOUCH_RUNE_VARBITS[i])
+			{
+				runepouchDirty = true;
+				totalsDirty = true;
+
+				if (eventRecorder != null)
+				{
+					recordVarbit(varbitId, event.getValue(), varbitId == RUNEPOUCH_RUNE_VARBITS[i]);
+				}
+				return;
+			}
+		}
+	}
+
+	@Subscribe
+	public void onWidgetLoaded(WidgetLoaded event)
+	{
+		int componentId = getBankInventoryComponentId(event.getGroupId());
+		if (componentId != -1)
+		{
+			openBank(componentId);
+		}
+	}
+
+	@Subscribe
+	public void onWidgetClosed(WidgetClosed event)
+	{
+		int componentId = getBankInventoryComponentId(event.getGroupId());
+		if (componentId != -1 && componentId == inventoryComponentId)
+		{
+			closeBank();
+		}
+	}
+
+	// interfaces can be closed without a WidgetClosed when the client logs out, hops or disconnects, so the state is
+	// worked out from the widgets again on the next tick
+	@Subscribe
+	public void onGameStateChanged(GameStateChanged event)
+	{
+		switch (event.getGameState())
+		{
+			case LOGIN_SCREEN:
+			case HOPPING:
+			case LOADING:
+				if (state == InventoryTotalState.BANK)
+				{
+					inventoryComponentId = ComponentID.INVENTORY_CONTAINER;
+					setState(InventoryTotalState.NONE);
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	@Subscribe
+	public void onScriptPostFired(ScriptPostFired event)
+	{
+		// the bank is built again after the pin is entered, so an open that happened before this was seen still counts
+		if (event.getScriptId() == ScriptID.BANKMAIN_BUILD)
+		{
+			openBank(ComponentID.BANK_INVENTORY_ITEM_CONTAINER);
+		}
+	}
+
+	// everything the overlay shows is worked out here on the client thread, once per tick, and published in the snapshot
+	@Subscribe
+	public void onGameTick(GameTick event)
+	{
+		metrics.begin(InventoryTotalMetrics.UPDATE_PLUGIN_STATE);
+		updatePluginState();
+		metrics.end(InventoryTotalMetrics.UPDATE_PLUGIN_STATE);
+
+		updateTotals();
+	}
+
+	// the replay drives the state changes itself, so it only runs this part of the tick
+	void updateTotals()
+	{
+		metrics.begin(InventoryTotalMetrics.GAME_TICK);
+
+		// RuneLite reloads its prices without an event, a reload shows up as held items priced differently
+		if (config.livePrices() && client.getTickCount() % PRICE_PROBE_TICKS == 0)
+		{
+			revaluePrices();
+		}
+
+		// the run may have started on the fallback prices before the file was read
+		if (priceFile.getVersion() != pricedFileVersion)
+		{
+			pricedFileVersion = priceFile.getVersion();
+			if (isPriceFileSource())
+			{
+				revaluePrices();
+			}
+		}
+
+		if (rebuildTotals)
+		{
+			recomputeTotals(false);
+		}
+		else if (totalsDirty)
+		{
+			if (runepouchDirty)
+			{
+				updateRunepouch();
+			}
+
+			publishSnapshot();
+		}
+
+		// items per hour change as the run goes on, so that ledger is built again every tick it's hovered
+		if (ledgerHovered && (snapshot.getLedger() == null || isItemsPerHourShown()))
+		{
+			publishLedger();
+		}
+
+		if (rebaseRates)
+		{
+			rateEngine.rebase(getRunProfit(), valuationEngine.getQtyDifferences());
+			rebaseRates = false;
+		}
+		else if (state == InventoryTotalState.RUN)
+		{
+			rateEngine.update(getRunProfit(), valuationEngine.getTickDeltas());
+		}
+
+		// once per tick, after the rates have read them
+		valuationEngine.clearTickDeltas();
+
+		ratesRunning = rateEngine.isRunning();
+		recentGpPerHour = rateEngine.getRecentGpPerHour();
+		// worked out here rather than per frame, so the text only changes when the rate does
+		runGpPerHour = rateEngine.getRunGpPerHour(Instant.now().toEpochMilli() - runStartTime);
+
+		if (tickRecorder != null && state == InventoryTotalState.RUN)
+		{
+			recordTick();
+		}
+
+		if (metrics.isEnabled())
+		{
+			metrics.setGauge(InventoryTotalMetrics.PRICE_COUNT, runData.prices.size());
+			metrics.setGauge(InventoryTotalMetrics.PRICE_MEMORY_BYTES, runData.prices.getMemoryBytes());
+		}
+
+		metrics.end(InventoryTotalMetrics.GAME_TICK);
+
+		if (eventRecorder != null)
+		{
+			long totalGp = snapshot.getTotalGp();
+			record(r -> r.recordTick(client.getTickCount(), totalGp));
+		}
+	}
+
+	private void updatePluginState()
+	{
+		if (plToggleOverride == null)
+		{
+			if (config.enableProfitLoss())
+			{
+				setMode(InventoryTotalMode.PROFIT_LOSS);
+			}
+			else
+			{
+				setMode(InventoryTotalMode.TOTAL);
+			}
+		}
+		else
+		{
+			setMode(plToggleOverride);
+		}
+
+		// the bank opening and closing is followed from events, the widgets are only checked for where it started
+		if (state == InventoryTotalState.NONE)
+		{
+			detectBank();
+		}
+
+		// check post new run
+		if (postNewRunTicks > 0 && --postNewRunTicks == 0)
+		{
+			postNewRun();
+		}
+	}
+
+	private void detectBank()
+	{
+		// the bank was closed without an event, which still starts a run
+		boolean leftBank = prevState == InventoryTotalState.BANK;
+
+		Widget inventoryWidget = client.getWidget(ComponentID.INVENTORY_CONTAINER);
+		if (inventoryWidget == null || inventoryWidget.getCanvasLocation().getX() < 0 || inventoryWidget.isHidden())
+		{
+			for (int altComponentId: ALT_INVENTORY_COMPONENT_IDS)
+			{
+				Widget altInventoryWidget = client.getWidget(altComponentId);
+				if (altInventoryWidget != null && !altInventoryWidget.isHidden())
+				{
+					inventoryComponentId = altComponentId;
+					setState(InventoryTotalState.BANK);
+					return;
+				}
+			}
+		}
+
+		inventoryComponentId = ComponentID.INVENTORY_CONTAINER;
+		setState(InventoryTotalState.RUN);
+
+		if (leftBank)
+		{
+			onNewRun();
+			postNewRunTicks = BANK_CLOSE_DELAY_TICKS;
+		}
+	}
+
+	// -1 for interfaces other than the bank and deposit box
+	private static int getBankInventoryComponentId(int groupId)
+	{
+		switch (groupId)
+		{
+			case InterfaceID.BANK:
+				return ComponentID.BANK_INVENTORY_ITEM_CONTAINER;
+			case InterfaceID.DEPOSIT_BOX:
+				return ComponentID.DEPOSIT_BOX_INVENTORY_ITEM_CONTAINER;
+			default:
+				return -1;
+		}
+	}
+
+	private void openBank(int componentId)
+	{
+		inventoryComponentId = componentId;
+
+		if (state == InventoryTotalState.BANK)
+		{
+			return;
+		}
+
+		setState(InventoryTotalState.BANK);
+
+		if (prevState == InventoryTotalState.RUN)
+		{
+			onBank();
 		}
 	}
 
+	private void closeBank()
+	{
+		inventoryComponentId = ComponentID.INVENTORY_CONTAINER;
+
+		if (state != InventoryTotalState.BANK)
+		{
+			return;
+		}
+
+		setState(InventoryTotalState.RUN);
+
+		onNewRun();
+		postNewRunTicks = BANK_CLOSE_DELAY_TICKS;
+	}
+
 	@Provides
 	InventoryTotalConfig provideConfig(ConfigManager configManager)
 	{
 		return configManager.getConfig(InventoryTotalConfig.class);
 	}
 
+	// config changes arrive on the swing thread, everything the game tick reads is changed on the client thread
 	@Subscribe
 	public void onConfigChanged(ConfigChanged config)
 	{
 		if (config.getGroup().equals(InventoryTotalConfig.GROUP))
 		{
-			if (config.getKey().equals("enableProfitLoss"))
-			{
-				plToggleOverride = null;
-			}
-			else if (config.getKey().equals("profitLossToggleKey"))
+			String key = config.getKey();
+			String value = config.getNewValue();
+
+			if (key.equals("profitLossToggleKey"))
 			{
 				unregisterPLToggleKey();
 				registerPLToggleKey();
-			} else if (config.getKey().equals("ignoredItems"))
-			{
-				// update the runData if it's already initialized
-				if (runData != null) {
-					runData.ignoredItems = getIgnoredItems();
-				}
 			}
+
+			clientThread.invokeLater(() -> applyConfigChange(key, value));
+		}
+	}
+
+	private void applyConfigChange(String key, String value)
+	{
+		totalsDirty = true;
+
+		if (key.equals("enableProfitLoss"))
+		{
+			plToggleOverride = null;
+		}
+		else if (key.equals("includeBank"))
+		{
+			rebuildTotals = true;
+		}
+		else if (key.equals("itemPricesKey"))
+		{
+			rebaseRates = true;
+		}
+		else if (key.equals("priceSource"))
+		{
+			itemManagerProvider.setGePrices(createGePrices());
+		}
+		else if (key.equals("recordEvents"))
+		{
+			updateRecording();
+		}
+		else if (key.equals("perfDebug"))
+		{
+			updatePerfDebug();
+		}
+		else if (key.equals("ignoredItems"))
+		{
+			// update the runData if it's already initialized
+			if (runData != null) {
+				runData.ignoredItems = getIgnoredItems();
+				compileIgnoredItems();
+				rebuildTotals = true;
+			}
+		}
+
+		// recorded with the game events
+		if (eventRecorder != null && isRecordedConfig(key))
+		{
+			record(r -> r.recordConfig(client.getTickCount(), key, value));
 		}
 	}
 
@@ -152,17 +611,22 @@ public class InventoryTotalPlugin extends Plugin
 	{
 		plToggleKeyListener = new HotkeyListener(() -> config.profitLossToggleKey())
 		{
+			// key events arrive on the swing thread, the mode is changed on the client thread
 			@Override
 			public void hotkeyPressed()
 			{
-				if (mode == InventoryTotalMode.TOTAL)
+				clientThread.invokeLater(() ->
 				{
-					plToggleOverride = InventoryTotalMode.PROFIT_LOSS;
-				}
-				else
-				{
-					plToggleOverride = InventoryTotalMode.TOTAL;
-				}
+					if (mode == InventoryTotalMode.TOTAL)
+					{
+						plToggleOverride = InventoryTotalMode.PROFIT_LOSS;
+					}
+					else
+					{
+						plToggleOverride = InventoryTotalMode.TOTAL;
+					}
+					totalsDirty = true;
+				});
 			}
 		};
 		keyManager.registerKeyListener(plToggleKeyListener);
@@ -183,480 +647,600 @@ public class InventoryTotalPlugin extends Plugin
 		runStartTime = Instant.now().toEpochMilli();
 
 		runData.ignoredItems = getIgnoredItems();
+		compileIgnoredItems();
+		rebuildTotals = true;
+
+		if (eventRecorder != null)
+		{
+			record(r -> r.recordNewRun(client.getTickCount()));
+		}
 	}
 
 	// to handle same tick bank closing
 	void postNewRun()
 	{
-		runData.initialItemQtys.clear();
+		prefetchPrices();
 
-		int [] inventoryTotals = getInventoryTotals(true);
-		int [] equipmentTotals = getEquipmentTotals(true);
+		InventoryTotalSnapshot totals = recomputeTotals(true);
 
-		int inventoryTotal = inventoryTotals[InventoryTotalPlugin.TOTAL_GP_GE_INDEX];
-		int inventoryTotalHA = inventoryTotals[InventoryTotalPlugin.TOTAL_GP_HA_INDEX];
+		runData.profitLossInitialGp = totals.getInventoryGp() + totals.getEquipmentGp();
+		runData.profitLossInitialGpHA = totals.getInventoryGpHA() + totals.getEquipmentGpHA();
 
-		int equipmentTotal = equipmentTotals[0];
-		int equipmentTotalHA = equipmentTotals[1];
-
-		runData.profitLossInitialGp = inventoryTotal + equipmentTotal;
-		runData.profitLossInitialGpHA = inventoryTotalHA + equipmentTotalHA;
+		// the profit in the snapshot was taken before the starting value changed
+		publishSnapshot();
 
 		writeSavedData();
 
+		rateEngine.start(0);
+		openTickSeries();
+
 		overlay.hideInterstitial();
+
+		if (eventRecorder != null)
+		{
+			record(r -> r.recordPostNewRun(client.getTickCount()));
+		}
 	}
 
 	void onBank()
 	{
+		closeTickSeries();
+		recordRun();
+		rateEngine.reset();
+
 		runData.profitLossInitialGp = 0;
 		runData.profitLossInitialGpHA = 0;
-		runData.itemPrices.clear();
+		runData.prices.newRun();
+		rebuildTotals = true;
+
+		runStartTime = 0;
+
+		writeSavedData();
+
+		if (eventRecorder != null)
+		{
+			record(r -> r.recordBank(client.getTickCount()));
+		}
+	}
+
+	// the run's starting value moves with the prices of what it started with, so the profit only reflects
+	// what was gained and lost. probed without recording, the lookups aren't part of the valuation
+	private void revaluePrices()
+	{
+		InventoryTotalIntMap gePriceChanges = valuationEngine.getGePriceChanges(itemManagerProvider);
+		if (gePriceChanges.isEmpty())
+		{
+			return;
+		}
+
+		runData.profitLossInitialGp += valuationEngine.revalue(gePriceChanges);
+		totalsDirty = true;
+		rebaseRates = true;
+
+		writeSavedData();
+	}
+
+	// the run's prices are frozen together, rather than one at a time as the scan reaches each item
+	private void prefetchPrices()
+	{
+		int[] inventoryIds = getItemIds(client.getItemContainer(InventoryID.INVENTORY));
+		int[] equipmentIds = getItemIds(client.getItemContainer(InventoryID.EQUIPMENT));
+
+		int[] itemIds = Arrays.copyOf(inventoryIds, inventoryIds.length + equipmentIds.length + runepouchIds.length);
+		System.arraycopy(equipmentIds, 0, itemIds, inventoryIds.length, equipmentIds.length);
+		System.arraycopy(runepouchIds, 0, itemIds, inventoryIds.length + equipmentIds.length, runepouchIds.length);
+
+		valuationEngine.prefetch(itemIds);
+	}
+
+	private static int[] getItemIds(ItemContainer itemContainer)
+	{
+		if (itemContainer == null)
+		{
+			return new int[0];
+		}
+
+		Item[] items = itemContainer.getItems();
+		int[] itemIds = new int[items.length];
+		for (int i = 0; i < items.length; i++)
+		{
+			itemIds[i] = items[i].getId();
+		}
+		return itemIds;
+	}
+
+	private boolean isPriceFileSource()
+	{
+		return config.priceSource() == InventoryTotalPriceSource.PRICE_FILE_HIGH
+				|| config.priceSource() == InventoryTotalPriceSource.PRICE_FILE_LOW;
+	}
 
-		runStartTime = 0;
+	private InventoryTotalPriceProvider createGePrices()
+	{
+		InventoryTotalPriceProvider gePrices = InventoryTotalItemManagerPrices.grandExchange(itemManager);
 
-		writeSavedData();
+		switch (config.priceSource())
+		{
+			case LOW_ALCH:
+				return InventoryTotalItemManagerPrices.lowAlch(itemManager);
+			case PRICE_FILE_HIGH:
+				priceFile.refresh();
+				return priceFile.getHighPrices(gePrices);
+			case PRICE_FILE_LOW:
+				priceFile.refresh();
+				return priceFile.getLowPrices(gePrices);
+			default:
+				return gePrices;
+		}
 	}
 
-	int [] getInventoryTotals(boolean isNewRun)
+	// values everything held from scratch and publishes a new snapshot for the overlay
+	InventoryTotalSnapshot recomputeTotals(boolean isNewRun)
 	{
-		final ItemContainer itemContainer = overlay.getInventoryItemContainer();
+		valuationEngine.reset(runData);
 
-		if (itemContainer == null)
+		ItemContainer inventory = client.getItemContainer(InventoryID.INVENTORY);
+		ItemContainer equipment = client.getItemContainer(InventoryID.EQUIPMENT);
+
+		valuationEngine.update(InventoryTotalValuationEngine.INVENTORY, inventory == null ? null : inventory.getItems());
+		valuationEngine.update(InventoryTotalValuationEngine.EQUIPMENT, equipment == null ? null : equipment.getItems());
+		updateRunepouch();
+
+		// the client keeps the bank container after the bank closes, so it can be valued again from there
+		if (config.includeBank())
 		{
-			return new int [2];
+			ItemContainer bank = client.getItemContainer(InventoryID.BANK);
+			if (bank != null)
+			{
+				valuationEngine.updateBank(bank.getItems());
+			}
 		}
 
-		final Item[] items = itemContainer.getItems();
-
-		final LinkedList<Item> allItems = new LinkedList<>(Arrays.asList(items));
-		// only add when the runepouch is in the inventory
-		if (allItems.stream().anyMatch(s -> s.getId() == RUNEPOUCH_ITEM_ID || s.getId() == DIVINE_RUNEPOUCH_ITEM_ID))
+		if (isNewRun)
 		{
-			allItems.addAll(getRunepouchContents());
+			runData.initialItemQtys = new InventoryTotalIntMap(runData.itemQtys);
 		}
 
-		int totalQty = 0;
-		int totalGp = 0;
-		int totalGpHA = 0;
+		rebuildTotals = false;
+		// the tick's deltas now hold everything valued again rather than what changed
+		rebaseRates = true;
 
-		for (Item item: allItems)
-		{
-			int itemId = item.getId();
+		return publishSnapshot();
+	}
+
+	private InventoryTotalSnapshot publishSnapshot()
+	{
+		long inventoryTotal = valuationEngine.getGp(InventoryTotalValuationEngine.INVENTORY)
+				+ valuationEngine.getGp(InventoryTotalValuationEngine.RUNEPOUCH);
+		long equipmentTotal = valuationEngine.getGp(InventoryTotalValuationEngine.EQUIPMENT);
+
+		long inventoryTotalHA = valuationEngine.getGpHA(InventoryTotalValuationEngine.INVENTORY)
+				+ valuationEngine.getGpHA(InventoryTotalValuationEngine.RUNEPOUCH);
+		long equipmentTotalHA = valuationEngine.getGpHA(InventoryTotalValuationEngine.EQUIPMENT);
 
-			final ItemComposition itemComposition = itemManager.getItemComposition(itemId);
+		long bankTotal = valuationEngine.getBankGp();
+		long bankTotalHA = valuationEngine.getBankGpHA();
 
-			String itemName = itemComposition.getName();
-			final boolean ignore = runData.ignoredItems.stream().anyMatch(s -> {
-				String lcItemName = itemName.toLowerCase();
-				String lcS = s.toLowerCase();
-				return lcItemName.contains(lcS);
-			});
-			if (ignore) { continue; }
+		long inventoryQty = valuationEngine.getQty(InventoryTotalValuationEngine.INVENTORY)
+				+ valuationEngine.getQty(InventoryTotalValuationEngine.RUNEPOUCH);
 
-			final boolean isNoted = itemComposition.getNote() != -1;
-			final int realItemId = isNoted ? itemComposition.getLinkedNoteId() : itemId;
+		long totalGp = 0;
+		if (config.priceType() == InventoryTotalPriceType.GRAND_EXCHANGE)
+		{
+			totalGp += inventoryTotal;
+		}
+		else
+		{
+			totalGp += inventoryTotalHA;
+		}
 
-			int totalPrice;
-			int totalPriceHA;
-			int gePrice;
-			int haPrice;
+		// net worth, the bank only counts once it has been opened
+		boolean includeBank = config.includeBank() && mode == InventoryTotalMode.TOTAL && valuationEngine.isBankKnown();
 
-			if (runData.itemPrices.containsKey(realItemId))
+		if ((state == InventoryTotalState.RUN && mode == InventoryTotalMode.PROFIT_LOSS) || includeBank)
+		{
+			if (config.priceType() == InventoryTotalPriceType.GRAND_EXCHANGE)
 			{
-				gePrice = runData.itemPrices.get(realItemId);
+				totalGp += equipmentTotal;
 			}
 			else
 			{
-				gePrice = itemManager.getItemPrice(realItemId);
+				totalGp += equipmentTotalHA;
 			}
+		}
 
-			if (runData.itemPricesHA.containsKey(realItemId))
+		if (includeBank)
+		{
+			if (config.priceType() == InventoryTotalPriceType.GRAND_EXCHANGE)
 			{
-				haPrice = runData.itemPricesHA.get(realItemId);
+				totalGp += bankTotal;
 			}
 			else
 			{
-				haPrice = itemComposition.getHaPrice();
+				totalGp += bankTotalHA;
 			}
+		}
 
-			int itemQty = item.getQuantity();
-
-			if (realItemId == COINS)
+		long profitGp = totalGp;
+		if (mode == InventoryTotalMode.PROFIT_LOSS)
+		{
+			if (config.priceType() == InventoryTotalPriceType.GRAND_EXCHANGE)
 			{
-				totalPrice = itemQty;
+				profitGp -= runData.profitLossInitialGp;
 			}
 			else
 			{
-				totalPrice = itemQty * gePrice;
+				profitGp -= runData.profitLossInitialGpHA;
 			}
+		}
 
-			if (realItemId == COINS)
+		// the ledger is left for publishLedger(), which only builds it while the total is hovered
+		InventoryTotalSnapshot totals = new InventoryTotalSnapshot(snapshot.getVersion() + 1, inventoryTotal, inventoryTotalHA,
+				equipmentTotal, equipmentTotalHA, bankTotal, bankTotalHA, inventoryQty, totalGp, profitGp, mode, state, null);
+
+		snapshot = totals;
+		totalsDirty = false;
+
+		return totals;
+	}
+
+	// the ledger is built here on the client thread rather than by the overlay, so the overlay never reads the run data
+	// it's built at most once per snapshot version, and the overlay draws it on the next frame
+	private void publishLedger()
+	{
+		List<InventoryTotalLedgerItem> ledger = Collections.emptyList();
+		if (config.showTooltip() && state == InventoryTotalState.RUN)
+		{
+			if (mode == InventoryTotalMode.PROFIT_LOSS)
 			{
-				totalPriceHA = itemQty;
+				ledger = getProfitLossLedger();
 			}
 			else
 			{
-				totalPriceHA = itemQty * haPrice;
+				ledger = getInventoryLedger();
 			}
+		}
 
-			totalGp += totalPrice;
-			totalGpHA += totalPriceHA;
-			totalQty += itemQty;
+		snapshot = snapshot.withLedger(ledger);
+	}
 
-			if (realItemId != COINS && !runData.itemPrices.containsKey(realItemId))
-			{
-				runData.itemPrices.put(realItemId, gePrice);
-			}
+	// the rune pouch is tracked as four extra slots which are only filled while a pouch is in the inventory
+	private void updateRunepouch()
+	{
+		ItemContainer inventory = client.getItemContainer(InventoryID.INVENTORY);
 
-			if (realItemId != COINS && !runData.itemPricesHA.containsKey(realItemId))
-			{
-				runData.itemPricesHA.put(realItemId, haPrice);
-			}
+		boolean hasRunepouch = inventory != null
+				&& (inventory.contains(RUNEPOUCH_ITEM_ID) || inventory.contains(DIVINE_RUNEPOUCH_ITEM_ID));
+
+		EnumComposition runepouchEnum = hasRunepouch ? client.getEnum(EnumID.RUNEPOUCH_RUNE) : null;
+
+		for (int i = 0; i < RUNEPOUCH_AMOUNT_VARBITS.length; i++)
+		{
+			runepouchIds[i] = -1;
+			runepouchQtys[i] = 0;
 
-			if (isNewRun)
+			if (!hasRunepouch)
 			{
-				if (runData.initialItemQtys.containsKey(realItemId))
-				{
-					runData.initialItemQtys.put(realItemId, runData.initialItemQtys.get(realItemId) + itemQty);
-				}
-				else
-				{
-					runData.initialItemQtys.put(realItemId, itemQty);
-				}
+				continue;
 			}
 
-			if (runData.itemQtys.containsKey(realItemId))
+			int amount = client.getVarbitValue(RUNEPOUCH_AMOUNT_VARBITS[i]);
+			if (amount <= 0)
 			{
-				runData.itemQtys.put(realItemId, runData.itemQtys.get(realItemId) + itemQty);
+				continue;
 			}
-			else
+
+			int runeId = client.getVarbitValue(RUNEPOUCH_RUNE_VARBITS[i]);
+			if (runeId == 0)
 			{
-				runData.itemQtys.put(realItemId, itemQty);
+				continue;
 			}
-		}
 
-		int[] totals = new int[3];
+			runepouchIds[i] = runepouchEnum.getIntValue(runeId);
+			runepouchQtys[i] = amount;
+		}
 
-		totals[TOTAL_GP_GE_INDEX] = totalGp;
-		totals[TOTAL_GP_HA_INDEX] = totalGpHA;
-		totals[TOTAL_QTY_INDEX] = totalQty;
+		valuationEngine.update(InventoryTotalValuationEngine.RUNEPOUCH, runepouchIds, runepouchQtys);
 
-		return totals;
+		runepouchDirty = false;
 	}
 
-	int [] getEquipmentTotals(boolean isNewRun)
+	List<InventoryTotalLedgerItem> getInventoryLedger()
 	{
-		ItemContainer itemContainer = overlay.getEquipmentItemContainer();
+		metrics.begin(InventoryTotalMetrics.LEDGER);
+		List<InventoryTotalLedgerItem> ledger = valuationEngine.getInventoryLedger(config.priceType());
+		metrics.end(InventoryTotalMetrics.LEDGER);
+		return ledger;
+	}
 
-		if (itemContainer == null)
+	List<InventoryTotalLedgerItem> getProfitLossLedger()
+	{
+		metrics.begin(InventoryTotalMetrics.LEDGER);
+		IntToLongFunction qtyPerHour = null;
+		if (isItemsPerHourShown())
 		{
-			return new int [] {0, 0};
+			long runTime = Instant.now().toEpochMilli() - runStartTime;
+			qtyPerHour = itemId -> rateEngine.getItemsPerHour(itemId, runTime);
 		}
+		List<InventoryTotalLedgerItem> ledger = valuationEngine.getProfitLossLedger(config.priceType(), qtyPerHour);
+		metrics.end(InventoryTotalMetrics.LEDGER);
+		return ledger;
+	}
 
-		Item ring = itemContainer.getItem(EquipmentInventorySlot.RING.getSlotIdx());
-		Item ammo = itemContainer.getItem(EquipmentInventorySlot.AMMO.getSlotIdx());
-
-		Player player = client.getLocalPlayer();
-
-		int [] ids = player.getPlayerComposition().getEquipmentIds();
+	private boolean isItemsPerHourShown()
+	{
+		return config.showItemsPerHour() && mode == InventoryTotalMode.PROFIT_LOSS && rateEngine.isRunning();
+	}
 
-		LinkedList<Integer> eIds = new LinkedList<>();
+	private void openTickSeries()
+	{
+		closeTickSeries();
 
-		for (int id: ids)
+		if (runStartTime == 0 || !config.recordRunHistory())
 		{
-			if (id < 512)
-			{
-				continue;
-			}
-
-			eIds.add(id - 512);
+			return;
 		}
 
-		if (ring != null)
+		String profile = configManager.getRSProfileKey();
+		if (profile == null)
 		{
-			eIds.add(ring.getId());
+			return;
 		}
 
-		if (ammo != null)
-		{
-			eIds.add(ammo.getId());
-		}
+		// the file is trimmed, opened, written and closed on the executor
+		tickRecorder = InventoryTotalTickRecorder.start(runHistory.getTickSeriesFile(profile), runStartTime, executor);
+	}
 
-		int eTotal = 0;
-		int eTotalHA = 0;
-		for (int itemId: eIds)
-		{
-			int qty = 1;
-			if (ammo != null && itemId == ammo.getId())
-			{
-				qty = ammo.getQuantity();
-			}
+	private void recordTick()
+	{
+		InventoryTotalSnapshot totals = snapshot;
+		tickRecorder.append(client.getTickCount(),
+				totals.getInventoryGp() + totals.getEquipmentGp(),
+				totals.getInventoryGpHA() + totals.getEquipmentGpHA(),
+				totals.getInventoryQty());
+	}
 
-			int gePrice;
-			int haPrice;
+	private void closeTickSeries()
+	{
+		if (tickRecorder == null)
+		{
+			return;
+		}
 
-			if (runData.itemPrices.containsKey(itemId))
-			{
-				gePrice = runData.itemPrices.get(itemId);
-			}
-			else
-			{
-				gePrice = itemManager.getItemPrice(itemId);
-			}
+		tickRecorder.close();
+		tickRecorder = null;
+	}
 
-			if (runData.itemPricesHA.containsKey(itemId))
-			{
-				haPrice = runData.itemPricesHA.get(itemId);
-			}
-			else
-			{
-				ItemComposition itemComposition = itemManager.getItemComposition(itemId);
-				haPrice = itemComposition.getHaPrice();
-			}
+	// appends the run that just ended to the run history
+	private void recordRun()
+	{
+		if (runStartTime == 0 || !config.recordRunHistory())
+		{
+			return;
+		}
 
-			int totalPrice = qty * gePrice;
-			int totalPriceHA = qty * haPrice;
+		InventoryTotalIntMap qtyDifferences = valuationEngine.getQtyDifferences();
 
-			eTotal += totalPrice;
-			eTotalHA += totalPriceHA;
+		int[] itemIds = new int[qtyDifferences.size()];
+		int[] qtys = new int[qtyDifferences.size()];
+		int[] prices = new int[qtyDifferences.size()];
+		int[] pricesHA = new int[qtyDifferences.size()];
+		int[] count = new int[1];
 
-			if (!runData.itemPrices.containsKey(itemId))
+		qtyDifferences.forEach((itemId, qtyDifference) -> {
+			if (qtyDifference == 0)
 			{
-				runData.itemPrices.put(itemId, gePrice);
+				return;
 			}
 
-			if (!runData.itemPricesHA.containsKey(itemId))
-			{
-				runData.itemPricesHA.put(itemId, haPrice);
-			}
+			int i = count[0]++;
+			itemIds[i] = itemId;
+			qtys[i] = qtyDifference;
+			prices[i] = itemId == COINS ? 1 : runData.prices.getGePrice(itemId);
+			pricesHA[i] = itemId == COINS ? 1 : runData.prices.getHaPrice(itemId);
+		});
+
+		long finalGp = valuationEngine.getGp(InventoryTotalValuationEngine.INVENTORY)
+				+ valuationEngine.getGp(InventoryTotalValuationEngine.RUNEPOUCH)
+				+ valuationEngine.getGp(InventoryTotalValuationEngine.EQUIPMENT);
+		long finalGpHA = valuationEngine.getGpHA(InventoryTotalValuationEngine.INVENTORY)
+				+ valuationEngine.getGpHA(InventoryTotalValuationEngine.RUNEPOUCH)
+				+ valuationEngine.getGpHA(InventoryTotalValuationEngine.EQUIPMENT);
+
+		InventoryTotalRunRecord record = new InventoryTotalRunRecord(runStartTime, Instant.now().toEpochMilli(),
+				runData.profitLossInitialGp, runData.profitLossInitialGpHA, finalGp, finalGpHA,
+				Arrays.copyOf(itemIds, count[0]), Arrays.copyOf(qtys, count[0]),
+				Arrays.copyOf(prices, count[0]), Arrays.copyOf(pricesHA, count[0]));
+
+		runHistory.append(configManager.getRSProfileKey(), record);
+	}
 
-			if (isNewRun)
-			{
-				if (runData.initialItemQtys.containsKey(itemId))
-				{
-					runData.initialItemQtys.put(itemId, runData.initialItemQtys.get(itemId) + qty);
-				}
-				else
-				{
-					runData.initialItemQtys.put(itemId, qty);
-				}
-			}
+	public InventoryTotalRunHistory getRunHistory()
+	{
+		return runHistory;
+	}
 
-			if (runData.itemQtys.containsKey(itemId))
-			{
-				runData.itemQtys.put(itemId, runData.itemQtys.get(itemId) + qty);
-			}
-			else
-			{
-				runData.itemQtys.put(itemId, qty);
-			}
+	private void updateRecording()
+	{
+		if (config.recordEvents())
+		{
+			startRecording();
+		}
+		else
+		{
+			stopRecording();
 		}
-
-		return new int [] {eTotal, eTotalHA};
 	}
 
-	List<InventoryTotalLedgerItem> getInventoryLedger()
+	// starts with everything the replay needs to begin from the same place: config, run data,
+	// state, rune pouch and the containers, valued again so their item data is recorded too
+	private void startRecording()
 	{
-		List<InventoryTotalLedgerItem> ledgerItems = new LinkedList<>();
-
-		final ItemContainer itemContainer = overlay.getInventoryItemContainer();
-
-		if (itemContainer == null)
+		if (eventRecorder != null || valuationEngine == null)
 		{
-			return new LinkedList<>();
+			return;
 		}
 
-		final Item[] items = itemContainer.getItems();
-
-		final LinkedList<Item> allItems = new LinkedList<>(Arrays.asList(items));
-		// only add when the runepouch is in the inventory
-		if (allItems.stream().anyMatch(s -> s.getId() == RUNEPOUCH_ITEM_ID || s.getId() == DIVINE_RUNEPOUCH_ITEM_ID))
+		File file = new File(InventoryTotalEventRecorder.EVENTS_DIR, Instant.now().toEpochMilli() + ".events");
+		try
 		{
-			allItems.addAll(getRunepouchContents());
+			eventRecorder = InventoryTotalEventRecorder.create(file);
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to create event recording {}", file, e);
+			return;
 		}
 
-		Map<Integer, Integer> qtyMap = new HashMap<>();
-
-		for (Item item: allItems) {
-			int itemId = item.getId();
-
-			final ItemComposition itemComposition = itemManager.getItemComposition(itemId);
+		itemProvider.setRecorder(eventRecorder);
 
-			String itemName = itemComposition.getName();
-			final boolean ignore = runData.ignoredItems.stream().anyMatch(s -> {
-				String lcItemName = itemName.toLowerCase();
-				String lcS = s.toLowerCase();
-				return lcItemName.contains(lcS);
-			});
-			if (ignore) { continue; }
+		int tick = client.getTickCount();
+		record(r -> r.recordConfig(tick, "itemPricesKey", config.priceType().name()));
+		record(r -> r.recordConfig(tick, "includeBank", String.valueOf(config.includeBank())));
+		record(r -> r.recordConfig(tick, "ignoredItems", config.ignoredItems()));
+		record(r -> r.recordRunData(tick, InventoryTotalRunDataCodec.encode(runData)));
+		record(r -> r.recordState(tick, state));
+		record(r -> r.recordMode(tick, mode));
 
-			final boolean isNoted = itemComposition.getNote() != -1;
-			final int realItemId = isNoted ? itemComposition.getLinkedNoteId() : itemId;
+		for (int i = 0; i < RUNEPOUCH_AMOUNT_VARBITS.length; i++)
+		{
+			recordVarbit(RUNEPOUCH_AMOUNT_VARBITS[i], client.getVarbitValue(RUNEPOUCH_AMOUNT_VARBITS[i]), false);
+			recordVarbit(RUNEPOUCH_RUNE_VARBITS[i], client.getVarbitValue(RUNEPOUCH_RUNE_VARBITS[i]), true);
+		}
 
-			int itemQty = item.getQuantity();
+		// item data that's already cached wouldn't be recorded
+		valuationEngine = new InventoryTotalValuationEngine(itemProvider);
+		compileIgnoredItems();
+		recomputeTotals(false);
 
-			if (qtyMap.containsKey(realItemId))
-			{
-				qtyMap.put(realItemId, qtyMap.get(realItemId) + itemQty);
-			}
-			else
+		for (InventoryID inventoryID: new InventoryID[]{InventoryID.INVENTORY, InventoryID.EQUIPMENT, InventoryID.BANK})
+		{
+			ItemContainer itemContainer = client.getItemContainer(inventoryID);
+			if (itemContainer != null)
 			{
-				qtyMap.put(realItemId, itemQty);
+				record(r -> r.recordContainer(tick, inventoryID.getId(), itemContainer.getItems()));
 			}
 		}
+	}
 
-		for (Integer itemId: qtyMap.keySet())
+	private void stopRecording()
+	{
+		if (eventRecorder == null)
 		{
-			final ItemComposition itemComposition = itemManager.getItemComposition(itemId);
-
-			String itemName = itemComposition.getName();
-
-			Integer qty = qtyMap.get(itemId);
-
-			Integer total;
-			if (config.priceType() == InventoryTotalPriceType.GRAND_EXCHANGE)
-			{
-				total = runData.itemPrices.get(itemId);
-			}
-			else
-			{
-				total = runData.itemPricesHA.get(itemId);
-			}
+			return;
+		}
 
-			if (itemId == COINS || total == null)
-			{
-				total = 1;
-			}
+		itemProvider.setRecorder(null);
 
-			ledgerItems.add(new InventoryTotalLedgerItem(itemName, qty, total));
+		try
+		{
+			eventRecorder.close();
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to close event recording", e);
 		}
 
-		return ledgerItems;
+		eventRecorder = null;
 	}
 
-	List<InventoryTotalLedgerItem> getProfitLossLedger()
+	private void record(RecordedEvent event)
 	{
-		Map<Integer, Integer> prices;
-		if (config.priceType() == InventoryTotalPriceType.GRAND_EXCHANGE)
+		if (eventRecorder == null)
 		{
-			prices = runData.itemPrices;
+			return;
 		}
-		else
+
+		try
 		{
-			prices = runData.itemPricesHA;
+			event.record(eventRecorder);
 		}
+		catch (IOException e)
+		{
+			log.warn("Unable to record event", e);
+			stopRecording();
+		}
+	}
 
-		Map<Integer, Integer> initialQtys = runData.initialItemQtys;
-		Map<Integer, Integer> qtys = runData.itemQtys;
-
-		Map<Integer, Integer> qtyDifferences = new HashMap<>();
-
-		HashSet<Integer> combinedQtyKeys = new HashSet<>();
-		combinedQtyKeys.addAll(qtys.keySet());
-		combinedQtyKeys.addAll(initialQtys.keySet());
-
-		for (Integer itemId: combinedQtyKeys)
+	// the rune a rune varbit maps to is recorded with it, since the replay has no enums to look it up in
+	private void recordVarbit(int varbitId, int value, boolean isRune)
+	{
+		int runeItemId = -1;
+		if (isRune && value != 0)
 		{
-			Integer initialQty = initialQtys.get(itemId);
-			Integer qty = qtys.get(itemId);
+			runeItemId = client.getEnum(EnumID.RUNEPOUCH_RUNE).getIntValue(value);
+		}
 
-			if (initialQty == null)
-			{
-				initialQty = 0;
-			}
+		int itemId = runeItemId;
+		record(r -> r.recordVarbit(client.getTickCount(), varbitId, value, itemId));
+	}
 
-			if (qty == null)
-			{
-				qty = 0;
-			}
+	private static boolean isRecordedConfig(String key)
+	{
+		return key.equals("itemPricesKey") || key.equals("includeBank") || key.equals("ignoredItems");
+	}
 
-			qtyDifferences.put(itemId, qty - initialQty);
+	private void updatePerfDebug()
+	{
+		if (config.perfDebug() && !metrics.isEnabled())
+		{
+			metrics.reset();
+			metrics.setEnabled(true);
+			overlayManager.add(perfOverlay);
 		}
-
-		List<InventoryTotalLedgerItem> ledgerItems = new LinkedList<>();
-
-		for (Integer itemId: qtyDifferences.keySet())
+		else if (!config.perfDebug() && metrics.isEnabled())
 		{
-			final ItemComposition itemComposition = itemManager.getItemComposition(itemId);
-			Integer price = prices.get(itemId);
-
-			if (price == null)
-			{
-				price = 1;
-			}
+			stopPerfDebug();
+		}
+	}
 
-			Integer qtyDifference = qtyDifferences.get(itemId);
+	// the stats collected so far are saved when the debug overlay is turned off
+	private void stopPerfDebug()
+	{
+		metrics.setEnabled(false);
+		overlayManager.remove(perfOverlay);
 
-			List<InventoryTotalLedgerItem> filteredList = ledgerItems.stream().filter(
-					item -> item.getDescription().equals(itemComposition.getName())).collect(Collectors.toList()
-			);
+		InventoryTotalMetrics.Histogram[] histograms = metrics.snapshot();
+		long[] gauges = metrics.snapshotGauges();
+		File file = new File(InventoryTotalRunHistory.HISTORY_DIR, "perf-" + Instant.now().toEpochMilli() + ".txt");
 
-			if (!filteredList.isEmpty())
-			{
-				filteredList.get(0).addQuantityDifference(qtyDifference);
-			}
-			else
+		executor.execute(() ->
+		{
+			try
 			{
-				if (price > 0)
+				if (!InventoryTotalRunHistory.HISTORY_DIR.exists() && !InventoryTotalRunHistory.HISTORY_DIR.mkdirs())
 				{
-					ledgerItems.add(new InventoryTotalLedgerItem(itemComposition.getName(), qtyDifference, price));
+					throw new IOException("Unable to create " + InventoryTotalRunHistory.HISTORY_DIR);
 				}
-			}
-		}
-
-		return ledgerItems;
-	}
 
-	// from ClueScrollPlugin
-	private List<Item> getRunepouchContents()
-	{
-		EnumComposition runepouchEnum = client.getEnum(EnumID.RUNEPOUCH_RUNE);
-		List<Item> items = new ArrayList<>(RUNEPOUCH_AMOUNT_VARBITS.length);
-		for (int i = 0; i < RUNEPOUCH_AMOUNT_VARBITS.length; i++)
-		{
-			int amount = client.getVarbitValue(RUNEPOUCH_AMOUNT_VARBITS[i]);
-			if (amount <= 0)
-			{
-				continue;
+				Files.write(file.toPath(), InventoryTotalMetrics.format(histograms, gauges).getBytes(StandardCharsets.UTF_8));
+				log.info("Saved inventory total performance stats to {}", file);
 			}
-
-			int runeId = client.getVarbitValue(RUNEPOUCH_RUNE_VARBITS[i]);
-			if (runeId == 0)
+			catch (IOException e)
 			{
-				continue;
+				log.warn("Unable to save performance stats", e);
 			}
-
-			final int itemId = runepouchEnum.getIntValue(runeId);
-			Item item = new Item(itemId, amount);
-			items.add(item);
-		}
-		return items;
+		});
 	}
 
-	// max invoke rate approximately once per tick
-	// mainly so that initially this isn't getting invoked multiple times after item prices are added to the map
+	// the persister encodes and writes a copy of the run data in the background, coalescing saves made close together
 	void writeSavedData()
 	{
-		if (state == InventoryTotalState.BANK || Instant.now().toEpochMilli() - lastWriteSaveTime < 600)
+		if (state == InventoryTotalState.BANK)
 		{
 			return;
 		}
 
-		String profile = configManager.getRSProfileKey();
-
-		String json = gson.toJson(runData);
-		configManager.setConfiguration(InventoryTotalConfig.GROUP, profile, "inventory_total_data", json);
-
-		lastWriteSaveTime = Instant.now().toEpochMilli();
+		metrics.begin(InventoryTotalMetrics.WRITE_SAVED_DATA);
+		persister.save(configManager.getRSProfileKey(), runData.copy());
+		metrics.end(InventoryTotalMetrics.WRITE_SAVED_DATA);
 	}
 
 	private InventoryTotalRunData getSavedData()
 	{
 		String profile = configManager.getRSProfileKey();
-		String json = configManager.getConfiguration(InventoryTotalConfig.GROUP, profile, "inventory_total_data");
 
-		InventoryTotalRunData savedData = gson.fromJson(json, InventoryTotalRunData.class);
+		InventoryTotalRunData savedData = persister.load(profile);
 
 		if (savedData == null)
 		{
@@ -665,6 +1249,11 @@ public class InventoryTotalPlugin extends Plugin
 		return savedData;
 	}
 
+	private void compileIgnoredItems()
+	{
+		valuationEngine.setIgnoreMatcher(InventoryTotalIgnoreMatcher.compile(runData.ignoredItems));
+	}
+
 	private LinkedList<String> getIgnoredItems() {
 		return new LinkedList<>(
 			Arrays.asList(
@@ -688,6 +1277,15 @@ public class InventoryTotalPlugin extends Plugin
 
 	void setMode(InventoryTotalMode mode)
 	{
+		if (this.mode != mode)
+		{
+			totalsDirty = true;
+
+			if (eventRecorder != null)
+			{
+				record(r -> r.recordMode(client.getTickCount(), mode));
+			}
+		}
 		this.mode = mode;
 	}
 
@@ -698,6 +1296,15 @@ public class InventoryTotalPlugin extends Plugin
 
 	void setState(InventoryTotalState state)
 	{
+		if (this.state != state)
+		{
+			totalsDirty = true;
+
+			if (eventRecorder != null)
+			{
+				record(r -> r.recordState(client.getTickCount(), state));
+			}
+		}
 		this.prevState = this.state;
 		this.state = state;
 	}
@@ -714,33 +1321,47 @@ public class InventoryTotalPlugin extends Plugin
 
 	public long getProfitGp()
 	{
-		if (mode == InventoryTotalMode.TOTAL)
-		{
-			return totalGp;
-		}
-		else if (config.priceType() == InventoryTotalPriceType.GRAND_EXCHANGE)
+		return snapshot.getProfitGp();
+	}
+
+	// profit since the run started, inventory and equipment, in the configured price type
+	private long getRunProfit()
+	{
+		InventoryTotalSnapshot totals = snapshot;
+
+		if (config.priceType() == InventoryTotalPriceType.GRAND_EXCHANGE)
 		{
-			return totalGp - runData.profitLossInitialGp;
+			return totals.getInventoryGp() + totals.getEquipmentGp() - runData.profitLossInitialGp;
 		}
 		else
 		{
-			return totalGp - runData.profitLossInitialGpHA;
+			return totals.getInventoryGpHA() + totals.getEquipmentGpHA() - runData.profitLossInitialGpHA;
 		}
 	}
 
-	void setTotalGp(long totalGp)
+	boolean isGpPerHourAvailable()
 	{
-		this.totalGp = totalGp;
+		return ratesRunning;
 	}
 
-	void setTotalQty(long totalQty)
+	long getGpPerHour()
 	{
-		this.totalQty = totalQty;
+		if (config.gpPerHourType() == InventoryTotalRateType.RECENT)
+		{
+			return recentGpPerHour;
+		}
+
+		return runGpPerHour;
 	}
 
 	public long getTotalQty()
 	{
-		return totalQty;
+		return snapshot.getInventoryQty();
+	}
+
+	public InventoryTotalSnapshot getSnapshot()
+	{
+		return snapshot;
 	}
 
 	public InventoryTotalRunData getRunData()
@@ -751,4 +1372,14 @@ public class InventoryTotalPlugin extends Plugin
 	public InventoryTotalMode getPLToggleOverride() {
 		return plToggleOverride;
 	}
+
+	int getInventoryComponentId()
+	{
+		return inventoryComponentId;
+	}
+
+	void setLedgerHovered(boolean ledgerHovered)
+	{
+		this.ledgerHovered = ledgerHovered;
+	}
 }
@@ -0,0 +1,166 @@
+package com.ericversteeg;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ScheduledExecutorService;
+
+// high and low prices read from a local csv with a line of item id, high, low per item, e.g. margins exported
+// from the wiki's real-time prices. the file is read on the executor and swapped in whole once it's read, so
+// pricing never waits on it, and items it doesn't have (or every item until it's read) fall back to another provider
+// the version increases each time a new file is swapped in, so prices taken from the fallback can be taken again
+@Slf4j
+class InventoryTotalPriceFile
+{
+	static final File PRICE_FILE = new File(InventoryTotalRunHistory.HISTORY_DIR, "prices.csv");
+
+	private final File file;
+	private final ScheduledExecutorService executor;
+
+	private volatile Prices prices;
+	private volatile int version = 0;
+	private boolean loading = false;
+
+	private static class Prices
+	{
+		private final long lastModified;
+		private final InventoryTotalIntMap highPrices = new InventoryTotalIntMap(4096);
+		private final InventoryTotalIntMap lowPrices = new InventoryTotalIntMap(4096);
+
+		private Prices(long lastModified)
+		{
+			this.lastModified = lastModified;
+		}
+	}
+
+	InventoryTotalPriceFile(File file, ScheduledExecutorService executor)
+	{
+		this.file = file;
+		this.executor = executor;
+	}
+
+	InventoryTotalPriceProvider getHighPrices(InventoryTotalPriceProvider fallback)
+	{
+		return new FilePriceProvider(true, fallback);
+	}
+
+	InventoryTotalPriceProvider getLowPrices(InventoryTotalPriceProvider fallback)
+	{
+		return new FilePriceProvider(false, fallback);
+	}
+
+	// reads the file again in the background if it changed since it was last read
+	synchronized void refresh()
+	{
+		if (loading)
+		{
+			return;
+		}
+
+		loading = true;
+		executor.execute(() ->
+		{
+			try
+			{
+				Prices current = prices;
+				long lastModified = file.lastModified();
+
+				if (lastModified != 0 && (current == null || current.lastModified != lastModified))
+				{
+					prices = read(file, lastModified);
+					version++;
+					log.debug("Read {} prices from {}", prices.highPrices.size(), file);
+				}
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to read price file {}", file, e);
+			}
+			finally
+			{
+				synchronized (this)
+				{
+					loading = false;
+				}
+			}
+		});
+	}
+
+	int getVersion()
+	{
+		return version;
+	}
+
+	private static Prices read(File file, long lastModified) throws IOException
+	{
+		Prices prices = new Prices(lastModified);
+
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				String[] fields = line.split(",");
+				if (fields.length < 3)
+				{
+					continue;
+				}
+
+				try
+				{
+					int itemId = Integer.parseInt(fields[0].trim());
+					prices.highPrices.put(itemId, Integer.parseInt(fields[1].trim()));
+					prices.lowPrices.put(itemId, Integer.parseInt(fields[2].trim()));
+				}
+				catch (NumberFormatException e)
+				{
+					// header, or an item without a price
+				}
+			}
+		}
+
+		return prices;
+	}
+
+	private class FilePriceProvider implements InventoryTotalPriceProvider
+	{
+		private final boolean high;
+		private final InventoryTotalPriceProvider fallback;
+
+		private FilePriceProvider(boolean high, InventoryTotalPriceProvider fallback)
+		{
+			this.high = high;
+			this.fallback = fallback;
+		}
+
+		@Override
+		public int getPrice(int itemId)
+		{
+			Prices current = prices;
+			if (current == null)
+			{
+				return fallback.getPrice(itemId);
+			}
+
+			InventoryTotalIntMap filePrices = high ? current.highPrices : current.lowPrices;
+			if (!filePrices.containsKey(itemId))
+			{
+				return fallback.getPrice(itemId);
+			}
+
+			return filePrices.get(itemId);
+		}
+
+		// the next run picks up any changes to the file
+		@Override
+		public void prefetch(int[] itemIds)
+		{
+			refresh();
+			fallback.prefetch(itemIds);
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package com.ericversteeg;
+
+// a source of item prices by unnoted item id, the item provider takes its gp and high alchemy prices from these
+interface InventoryTotalPriceProvider
+{
+	int getPrice(int itemId);
+
+	// called with the items about to be priced, so a source can load them together instead of one at a time
+	default void prefetch(int[] itemIds)
+	{
+	}
+}
@@ -0,0 +1,177 @@
+package com.ericversteeg;
+
+import java.util.Arrays;
+
+// the prices items were valued at, frozen the first time an item is valued so the profit / loss doesn't change
+// when ItemManager updates. ge prices only cover the current run, newRun() drops them so every run is valued at
+// prices from when it started. high alchemy prices of items outside the run are kept for the most recently
+// priced MAX_RECENT items, so the saved data stays the same size however long the profile has been played
+class InventoryTotalPriceSnapshot
+{
+	static final int MAX_RECENT = 512;
+
+	private final InventoryTotalIntMap gePrices;
+	private final InventoryTotalIntMap haPrices;
+	// when each priced item was last priced, for evicting the least recently used
+	private final InventoryTotalIntMap lastPriced;
+	private int priceCount;
+
+	InventoryTotalPriceSnapshot()
+	{
+		gePrices = new InventoryTotalIntMap();
+		haPrices = new InventoryTotalIntMap();
+		lastPriced = new InventoryTotalIntMap();
+	}
+
+	InventoryTotalPriceSnapshot(InventoryTotalPriceSnapshot other)
+	{
+		gePrices = new InventoryTotalIntMap(other.gePrices);
+		haPrices = new InventoryTotalIntMap(other.haPrices);
+		lastPriced = new InventoryTotalIntMap(other.lastPriced);
+		priceCount = other.priceCount;
+	}
+
+	// from the separate price maps saved before the snapshot, in no particular order
+	static InventoryTotalPriceSnapshot of(InventoryTotalIntMap gePrices, InventoryTotalIntMap haPrices)
+	{
+		InventoryTotalPriceSnapshot prices = new InventoryTotalPriceSnapshot();
+		haPrices.forEach(prices::putHaPrice);
+		gePrices.forEach(prices::putGePrice);
+		prices.trim();
+		return prices;
+	}
+
+	boolean hasGePrice(int itemId)
+	{
+		return gePrices.containsKey(itemId);
+	}
+
+	int getGePrice(int itemId)
+	{
+		return gePrices.get(itemId);
+	}
+
+	void putGePrice(int itemId, int price)
+	{
+		gePrices.put(itemId, price);
+		lastPriced.put(itemId, priceCount++);
+	}
+
+	boolean hasHaPrice(int itemId)
+	{
+		return haPrices.containsKey(itemId);
+	}
+
+	int getHaPrice(int itemId)
+	{
+		return haPrices.get(itemId);
+	}
+
+	void putHaPrice(int itemId, int price)
+	{
+		haPrices.put(itemId, price);
+		lastPriced.put(itemId, priceCount++);
+	}
+
+	boolean hasPrice(InventoryTotalPriceType priceType, int itemId)
+	{
+		return priceType == InventoryTotalPriceType.GRAND_EXCHANGE ? hasGePrice(itemId) : hasHaPrice(itemId);
+	}
+
+	// 0 when the item hasn't been priced
+	int getPrice(InventoryTotalPriceType priceType, int itemId)
+	{
+		return priceType == InventoryTotalPriceType.GRAND_EXCHANGE ? getGePrice(itemId) : getHaPrice(itemId);
+	}
+
+	// forgets the ge prices of the items that aren't in keep, so they're priced again the next time they're valued
+	void retainGePrices(InventoryTotalIntMap keep)
+	{
+		int[] itemIds = new int[gePrices.size()];
+		int[] count = new int[1];
+		gePrices.forEach((itemId, price) -> {
+			if (!keep.containsKey(itemId))
+			{
+				itemIds[count[0]++] = itemId;
+			}
+		});
+
+		for (int i = 0; i < count[0]; i++)
+		{
+			gePrices.remove(itemIds[i]);
+		}
+	}
+
+	// everything valued so far belonged to the run that just ended
+	void newRun()
+	{
+		gePrices.clear();
+		trim();
+	}
+
+	// evicts the least recently priced items outside the run until at most MAX_RECENT are left
+	void trim()
+	{
+		int recentCount = lastPriced.size() - gePrices.size();
+		if (recentCount <= MAX_RECENT)
+		{
+			return;
+		}
+
+		// priced order in the high bits, so sorting puts the oldest first
+		long[] recent = new long[recentCount];
+		int[] count = new int[1];
+		lastPriced.forEach((itemId, priced) -> {
+			if (!gePrices.containsKey(itemId))
+			{
+				recent[count[0]++] = ((long) priced << 32) | (itemId & 0xFFFFFFFFL);
+			}
+		});
+		Arrays.sort(recent, 0, count[0]);
+
+		for (int i = 0; i < count[0] - MAX_RECENT; i++)
+		{
+			int itemId = (int) recent[i];
+			haPrices.remove(itemId);
+			lastPriced.remove(itemId);
+		}
+	}
+
+	// priced items, least recently priced first
+	int[] getItemIds()
+	{
+		long[] order = new long[lastPriced.size()];
+		int[] count = new int[1];
+		lastPriced.forEach((itemId, priced) -> order[count[0]++] = ((long) priced << 32) | (itemId & 0xFFFFFFFFL));
+		Arrays.sort(order);
+
+		int[] itemIds = new int[order.length];
+		for (int i = 0; i < order.length; i++)
+		{
+			itemIds[i] = (int) order[i];
+		}
+		return itemIds;
+	}
+
+	int size()
+	{
+		return lastPriced.size();
+	}
+
+	// of the maps' arrays, which is nearly all of it
+	long getMemoryBytes()
+	{
+		return (gePrices.capacity() + haPrices.capacity() + lastPriced.capacity()) * 8L;
+	}
+
+	// not to be modified, for writing the price maps the way they were saved before the snapshot
+	InventoryTotalIntMap getGePrices()
+	{
+		return gePrices;
+	}
+
+	InventoryTotalIntMap getHaPrices()
+	{
+		return haPrices;
+	}
+}
@@ -0,0 +1,8 @@
+package com.ericversteeg;
+
+public enum InventoryTotalPriceSource {
+    GRAND_EXCHANGE,
+    LOW_ALCH,
+    PRICE_FILE_HIGH,
+    PRICE_FILE_LOW
+}
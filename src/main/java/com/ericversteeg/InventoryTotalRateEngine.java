@@ -0,0 +1,114 @@
+package com.ericversteeg;
+
+// gp and items per hour for the current run, fed once per tick with the run profit and the tick's item deltas
+// the recent rate is an exponentially weighted average of the per tick profit change,
+// the run rate is the profit over the whole run time, so neither needs the run's history
+class InventoryTotalRateEngine
+{
+	private static final long MILLIS_PER_HOUR = 3600000L;
+	private static final double TICKS_PER_HOUR = MILLIS_PER_HOUR / 600.0;
+
+	// about 5 minutes of ticks
+	private static final int RECENT_TICKS = 500;
+	private static final double ALPHA = 1 - Math.exp(-1.0 / RECENT_TICKS);
+
+	private boolean running = false;
+
+	private long profit;
+	private double recentGpPerTick;
+	// the recent average starts at 0, dividing by the weight given to real ticks so far keeps it from lagging early on
+	private double recentWeight;
+
+	// net change in each item since the run started, kept up to date from the tick deltas
+	private final InventoryTotalIntMap itemQtys = new InventoryTotalIntMap();
+	private final InventoryTotalIntMap.Consumer addItemQty = (itemId, qtyDelta) ->
+	{
+		if (itemQtys.add(itemId, qtyDelta) == 0)
+		{
+			itemQtys.remove(itemId);
+		}
+	};
+
+	void start(long profit)
+	{
+		reset();
+
+		this.profit = profit;
+		running = true;
+	}
+
+	void reset()
+	{
+		running = false;
+		profit = 0;
+		recentGpPerTick = 0;
+		recentWeight = 0;
+		itemQtys.clear();
+	}
+
+	// the profit jumped without anything being gained or lost, e.g. items were valued again, which also means the
+	// tick's deltas hold everything valued again. the net item changes are taken from the run instead
+	void rebase(long profit, InventoryTotalIntMap qtyDifferences)
+	{
+		this.profit = profit;
+
+		itemQtys.clear();
+		qtyDifferences.forEach(addItemQty);
+	}
+
+	// tickDeltas are the item changes since the last update
+	void update(long profit, InventoryTotalIntMap tickDeltas)
+	{
+		if (!running)
+		{
+			return;
+		}
+
+		recentGpPerTick += ALPHA * ((profit - this.profit) - recentGpPerTick);
+		recentWeight += ALPHA * (1 - recentWeight);
+		this.profit = profit;
+
+		tickDeltas.forEach(addItemQty);
+	}
+
+	boolean isRunning()
+	{
+		return running;
+	}
+
+	long getRecentGpPerHour()
+	{
+		if (recentWeight == 0)
+		{
+			return 0;
+		}
+
+		return Math.round(recentGpPerTick / recentWeight * TICKS_PER_HOUR);
+	}
+
+	long getRunProfit()
+	{
+		return profit;
+	}
+
+	long getRunGpPerHour(long runTime)
+	{
+		return perHour(profit, runTime);
+	}
+
+	// net change in the item per hour of run time, by canonical item id
+	long getItemsPerHour(int itemId, long runTime)
+	{
+		return perHour(itemQtys.get(itemId), runTime);
+	}
+
+	static long perHour(long amount, long runTime)
+	{
+		if (runTime <= 0)
+		{
+			return 0;
+		}
+
+		return (long) ((double) amount * MILLIS_PER_HOUR / runTime);
+	}
+}
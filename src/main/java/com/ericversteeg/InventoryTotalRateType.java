@@ -0,0 +1,6 @@
+package com.ericversteeg;
+
+public enum InventoryTotalRateType {
+    RUN,
+    RECENT
+}
@@ -0,0 +1,110 @@
+package com.ericversteeg;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+
+// passes lookups through to another provider, and records the results while an event recorder is set
+@Slf4j
+class InventoryTotalRecordingItemProvider implements InventoryTotalItemProvider
+{
+	private final InventoryTotalItemProvider itemProvider;
+
+	private InventoryTotalEventRecorder recorder;
+
+	InventoryTotalRecordingItemProvider(InventoryTotalItemProvider itemProvider)
+	{
+		this.itemProvider = itemProvider;
+	}
+
+	void setRecorder(InventoryTotalEventRecorder recorder)
+	{
+		this.recorder = recorder;
+	}
+
+	@Override
+	public int getGePrice(int itemId)
+	{
+		int price = itemProvider.getGePrice(itemId);
+		if (recorder != null)
+		{
+			try
+			{
+				recorder.recordGePrice(itemId, price);
+			}
+			catch (IOException e)
+			{
+				onRecordFailed(e);
+			}
+		}
+		return price;
+	}
+
+	@Override
+	public int getHaPrice(int itemId)
+	{
+		int price = itemProvider.getHaPrice(itemId);
+		if (recorder != null)
+		{
+			try
+			{
+				recorder.recordHaPrice(itemId, price);
+			}
+			catch (IOException e)
+			{
+				onRecordFailed(e);
+			}
+		}
+		return price;
+	}
+
+	// nothing to record, the prices are recorded as they're looked up
+	@Override
+	public void prefetch(int[] itemIds)
+	{
+		itemProvider.prefetch(itemIds);
+	}
+
+	@Override
+	public String getName(int itemId)
+	{
+		String name = itemProvider.getName(itemId);
+		if (recorder != null)
+		{
+			try
+			{
+				recorder.recordName(itemId, name);
+			}
+			catch (IOException e)
+			{
+				onRecordFailed(e);
+			}
+		}
+		return name;
+	}
+
+	@Override
+	public int getUnnotedId(int itemId)
+	{
+		int unnotedId = itemProvider.getUnnotedId(itemId);
+		if (recorder != null)
+		{
+			try
+			{
+				recorder.recordUnnotedId(itemId, unnotedId);
+			}
+			catch (IOException e)
+			{
+				onRecordFailed(e);
+			}
+		}
+		return unnotedId;
+	}
+
+	// the recorder is broken, so the plugin stops recording on its next write too
+	private void onRecordFailed(IOException e)
+	{
+		log.warn("Unable to record item data", e);
+		recorder = null;
+	}
+}
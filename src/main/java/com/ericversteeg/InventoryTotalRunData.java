@@ -1,19 +1,133 @@
 package com.ericversteeg;
 
-import java.util.HashMap;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.LinkedList;
-import java.util.Map;
 
+// saved with InventoryTotalRunDataCodec, the json adapter reads data saved before that and the recorded run data
+@JsonAdapter(InventoryTotalRunData.Adapter.class)
 public class InventoryTotalRunData {
     long profitLossInitialGp = 0;
     long profitLossInitialGpHA = 0;
 
     // static item prices so that when ItemManager updates, the Profit / Loss value doesn't all of a sudden change
-    // this is cleared and repopulated at the start off each new run (after bank) and whenever new items hit the inventory
-    Map<Integer, Integer> itemPrices = new HashMap<>();
-    Map<Integer, Integer> itemPricesHA = new HashMap<>();
-    Map<Integer, Integer> initialItemQtys = new HashMap<>();
-    Map<Integer, Integer> itemQtys = new HashMap<>();
+    // the run's prices are dropped at the start of each new run (after bank) and repopulated as items are valued
+    InventoryTotalPriceSnapshot prices = new InventoryTotalPriceSnapshot();
+    InventoryTotalIntMap initialItemQtys = new InventoryTotalIntMap();
+    InventoryTotalIntMap itemQtys = new InventoryTotalIntMap();
 
     LinkedList<String> ignoredItems = new LinkedList<>();
+
+    // deep copy, so it can be serialized while this one keeps changing
+    InventoryTotalRunData copy()
+    {
+        InventoryTotalRunData copy = new InventoryTotalRunData();
+        copy.profitLossInitialGp = profitLossInitialGp;
+        copy.profitLossInitialGpHA = profitLossInitialGpHA;
+        copy.prices = new InventoryTotalPriceSnapshot(prices);
+        copy.initialItemQtys = new InventoryTotalIntMap(initialItemQtys);
+        copy.itemQtys = new InventoryTotalIntMap(itemQtys);
+        copy.ignoredItems = new LinkedList<>(ignoredItems);
+        return copy;
+    }
+
+    // streams the same json the reflective adapter wrote, skipping fields it doesn't know
+    static class Adapter extends TypeAdapter<InventoryTotalRunData>
+    {
+        private final InventoryTotalIntMap.Adapter intMapAdapter = new InventoryTotalIntMap.Adapter();
+
+        @Override
+        public void write(JsonWriter out, InventoryTotalRunData runData) throws IOException
+        {
+            out.beginObject();
+            out.name("profitLossInitialGp").value(runData.profitLossInitialGp);
+            out.name("profitLossInitialGpHA").value(runData.profitLossInitialGpHA);
+            out.name("itemPrices");
+            intMapAdapter.write(out, runData.prices.getGePrices());
+            out.name("itemPricesHA");
+            intMapAdapter.write(out, runData.prices.getHaPrices());
+            out.name("initialItemQtys");
+            intMapAdapter.write(out, runData.initialItemQtys);
+            out.name("itemQtys");
+            intMapAdapter.write(out, runData.itemQtys);
+
+            out.name("ignoredItems").beginArray();
+            for (String ignoredItem : runData.ignoredItems)
+            {
+                out.value(ignoredItem);
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public InventoryTotalRunData read(JsonReader in) throws IOException
+        {
+            InventoryTotalRunData runData = new InventoryTotalRunData();
+            InventoryTotalIntMap gePrices = new InventoryTotalIntMap();
+            InventoryTotalIntMap haPrices = new InventoryTotalIntMap();
+
+            in.beginObject();
+            while (in.hasNext())
+            {
+                switch (in.nextName())
+                {
+                    case "profitLossInitialGp":
+                        runData.profitLossInitialGp = in.nextLong();
+                        break;
+                    case "profitLossInitialGpHA":
+                        runData.profitLossInitialGpHA = in.nextLong();
+                        break;
+                    case "itemPrices":
+                        gePrices = intMapAdapter.read(in);
+                        break;
+                    case "itemPricesHA":
+                        haPrices = intMapAdapter.read(in);
+                        break;
+                    case "initialItemQtys":
+                        runData.initialItemQtys = intMapAdapter.read(in);
+                        break;
+                    case "itemQtys":
+                        runData.itemQtys = intMapAdapter.read(in);
+                        break;
+                    case "ignoredItems":
+                        runData.ignoredItems = readIgnoredItems(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+
+            runData.prices = InventoryTotalPriceSnapshot.of(gePrices, haPrices);
+
+            return runData;
+        }
+
+        private static LinkedList<String> readIgnoredItems(JsonReader in) throws IOException
+        {
+            LinkedList<String> ignoredItems = new LinkedList<>();
+
+            if (in.peek() == JsonToken.NULL)
+            {
+                in.nextNull();
+                return ignoredItems;
+            }
+
+            in.beginArray();
+            while (in.hasNext())
+            {
+                ignoredItems.add(in.nextString());
+            }
+            in.endArray();
+
+            return ignoredItems;
+        }
+    }
 }
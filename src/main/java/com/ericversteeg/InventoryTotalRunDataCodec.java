@@ -0,0 +1,285 @@
+package com.ericversteeg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedList;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// compact binary form of the saved run data, stored in the config as base64 after a prefix json can't start with
+// a header byte holds the format version and whether the rest is deflated, which it only is when that's smaller
+// the item tables are written sorted by item id with the ids delta encoded, so most ids and prices take 1 to 3 bytes
+// only the current version is read, older encoded saves are dropped and the run starts over
+final class InventoryTotalRunDataCodec
+{
+	static final String PREFIX = "ITD:";
+
+	private static final int VERSION = 2;
+	private static final int NO_PRICE = -1;
+	private static final int FLAG_DEFLATED = 0x80;
+	private static final int VERSION_MASK = 0x7F;
+	// far beyond any real run, a deflated body that inflates past this is corrupt or hostile
+	private static final int MAX_INFLATED_SIZE = 4 * 1024 * 1024;
+
+	private InventoryTotalRunDataCodec()
+	{
+	}
+
+	// saves from before this format are json
+	static boolean isEncoded(String data)
+	{
+		return data != null && data.startsWith(PREFIX);
+	}
+
+	static String encode(InventoryTotalRunData runData) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		InventoryTotalVarInts.writeSignedVarLong(out, runData.profitLossInitialGp);
+		InventoryTotalVarInts.writeSignedVarLong(out, runData.profitLossInitialGpHA);
+
+		writePrices(out, runData.prices);
+		writeTable(out, runData.initialItemQtys);
+		writeTable(out, runData.itemQtys);
+
+		InventoryTotalVarInts.writeVarInt(out, runData.ignoredItems.size());
+		for (String ignoredItem: runData.ignoredItems)
+		{
+			byte[] name = ignoredItem.getBytes(StandardCharsets.UTF_8);
+			InventoryTotalVarInts.writeVarInt(out, name.length);
+			out.write(name);
+		}
+
+		out.flush();
+		byte[] body = bytes.toByteArray();
+		byte[] deflated = deflate(body);
+
+		byte[] encoded;
+		if (deflated.length < body.length)
+		{
+			encoded = new byte[deflated.length + 1];
+			encoded[0] = (byte) (VERSION | FLAG_DEFLATED);
+			System.arraycopy(deflated, 0, encoded, 1, deflated.length);
+		}
+		else
+		{
+			encoded = new byte[body.length + 1];
+			encoded[0] = (byte) VERSION;
+			System.arraycopy(body, 0, encoded, 1, body.length);
+		}
+
+		return PREFIX + Base64.getEncoder().encodeToString(encoded);
+	}
+
+	static InventoryTotalRunData decode(String data) throws IOException
+	{
+		if (!isEncoded(data))
+		{
+			throw new IOException("Not encoded inventory total data");
+		}
+
+		byte[] encoded;
+		try
+		{
+			encoded = Base64.getDecoder().decode(data.substring(PREFIX.length()));
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new IOException("Malformed inventory total data", e);
+		}
+
+		if (encoded.length == 0)
+		{
+			throw new IOException("Empty inventory total data");
+		}
+
+		int header = encoded[0] & 0xFF;
+		int version = header & VERSION_MASK;
+		if (version != VERSION)
+		{
+			throw new IOException("Unsupported inventory total data version " + version);
+		}
+
+		// inflated up front, reading the varints a byte at a time through the inflater is far slower
+		ByteBuffer in;
+		if ((header & FLAG_DEFLATED) != 0)
+		{
+			in = ByteBuffer.wrap(inflate(encoded));
+		}
+		else
+		{
+			in = ByteBuffer.wrap(encoded, 1, encoded.length - 1);
+		}
+
+		try
+		{
+			return decode(in);
+		}
+		catch (BufferUnderflowException e)
+		{
+			throw new IOException("Truncated inventory total data", e);
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new IOException("Malformed inventory total data", e);
+		}
+	}
+
+	private static InventoryTotalRunData decode(ByteBuffer in) throws IOException
+	{
+		InventoryTotalRunData runData = new InventoryTotalRunData();
+
+		runData.profitLossInitialGp = InventoryTotalVarInts.readSignedVarLong(in);
+		runData.profitLossInitialGpHA = InventoryTotalVarInts.readSignedVarLong(in);
+
+		runData.prices = readPrices(in);
+
+		runData.initialItemQtys = readTable(in);
+		runData.itemQtys = readTable(in);
+
+		int ignoredCount = readCount(in, 1);
+		LinkedList<String> ignoredItems = new LinkedList<>();
+		for (int i = 0; i < ignoredCount; i++)
+		{
+			byte[] name = new byte[readCount(in, 1)];
+			in.get(name);
+			ignoredItems.add(new String(name, StandardCharsets.UTF_8));
+		}
+		runData.ignoredItems = ignoredItems;
+
+		return runData;
+	}
+
+	private static void writeTable(DataOutput out, InventoryTotalIntMap table) throws IOException
+	{
+		int[] itemIds = new int[table.size()];
+		int[] count = new int[1];
+		table.forEach((itemId, value) -> itemIds[count[0]++] = itemId);
+		Arrays.sort(itemIds);
+
+		InventoryTotalVarInts.writeVarInt(out, itemIds.length);
+
+		int prevItemId = 0;
+		for (int itemId: itemIds)
+		{
+			InventoryTotalVarInts.writeSignedVarInt(out, itemId - prevItemId);
+			InventoryTotalVarInts.writeSignedVarInt(out, table.get(itemId));
+			prevItemId = itemId;
+		}
+	}
+
+	private static InventoryTotalIntMap readTable(ByteBuffer in) throws IOException
+	{
+		int size = readCount(in, 2);
+		InventoryTotalIntMap table = new InventoryTotalIntMap(size);
+
+		int itemId = 0;
+		for (int i = 0; i < size; i++)
+		{
+			itemId += InventoryTotalVarInts.readSignedVarInt(in);
+			table.put(itemId, InventoryTotalVarInts.readSignedVarInt(in));
+		}
+
+		return table;
+	}
+
+	// prices are never negative, so a missing one is written as -1
+	private static void writePrices(DataOutput out, InventoryTotalPriceSnapshot prices) throws IOException
+	{
+		int[] itemIds = prices.getItemIds();
+
+		InventoryTotalVarInts.writeVarInt(out, itemIds.length);
+
+		int prevItemId = 0;
+		for (int itemId: itemIds)
+		{
+			InventoryTotalVarInts.writeSignedVarInt(out, itemId - prevItemId);
+			InventoryTotalVarInts.writeSignedVarInt(out, prices.hasGePrice(itemId) ? prices.getGePrice(itemId) : NO_PRICE);
+			InventoryTotalVarInts.writeSignedVarInt(out, prices.hasHaPrice(itemId) ? prices.getHaPrice(itemId) : NO_PRICE);
+			prevItemId = itemId;
+		}
+	}
+
+	private static InventoryTotalPriceSnapshot readPrices(ByteBuffer in) throws IOException
+	{
+		int size = readCount(in, 3);
+		InventoryTotalPriceSnapshot prices = new InventoryTotalPriceSnapshot();
+
+		int itemId = 0;
+		for (int i = 0; i < size; i++)
+		{
+			itemId += InventoryTotalVarInts.readSignedVarInt(in);
+
+			int gePrice = InventoryTotalVarInts.readSignedVarInt(in);
+			if (gePrice != NO_PRICE)
+			{
+				prices.putGePrice(itemId, gePrice);
+			}
+
+			int haPrice = InventoryTotalVarInts.readSignedVarInt(in);
+			if (haPrice != NO_PRICE)
+			{
+				prices.putHaPrice(itemId, haPrice);
+			}
+		}
+
+		return prices;
+	}
+
+	// every value takes at least a byte, so a count of more entries than there are bytes left is corrupt data
+	// rather than something to allocate for
+	private static int readCount(ByteBuffer in, int valuesPerEntry) throws IOException
+	{
+		int count = InventoryTotalVarInts.readVarInt(in);
+		if (count < 0 || count > in.remaining() / valuesPerEntry)
+		{
+			throw new IOException("Malformed inventory total data");
+		}
+		return count;
+	}
+
+	private static byte[] deflate(byte[] body) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length);
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater))
+		{
+			out.write(body);
+		}
+		finally
+		{
+			deflater.end();
+		}
+		return bytes.toByteArray();
+	}
+
+	private static byte[] inflate(byte[] encoded) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.min(encoded.length * 3, MAX_INFLATED_SIZE));
+		try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(encoded, 1, encoded.length - 1)))
+		{
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) != -1)
+			{
+				if (bytes.size() + read > MAX_INFLATED_SIZE)
+				{
+					throw new IOException("Inventory total data inflates past " + MAX_INFLATED_SIZE + " bytes");
+				}
+				bytes.write(buffer, 0, read);
+			}
+		}
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,275 @@
+package com.ericversteeg;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.RuneLite;
+
+import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+// append-only history of finished runs, one log and one index file per profile under the runelite directory
+// the log holds length prefixed, varint encoded run records
+// the index holds a fixed size entry (log offset, start time, end time) per run so runs can be paged and
+// searched by time without reading the whole log
+@Slf4j
+class InventoryTotalRunHistory
+{
+	static final File HISTORY_DIR = new File(RuneLite.RUNELITE_DIR, "inventory-total");
+
+	private static final int LOG_MAGIC = 0x49544831; // ITH1
+	private static final int LOG_HEADER_SIZE = 4;
+	private static final int INDEX_ENTRY_SIZE = 24;
+
+	private final File dir;
+	private final ScheduledExecutorService executor;
+
+	@Inject
+	InventoryTotalRunHistory(ScheduledExecutorService executor)
+	{
+		this(HISTORY_DIR, executor);
+	}
+
+	InventoryTotalRunHistory(File dir, ScheduledExecutorService executor)
+	{
+		this.dir = dir;
+		this.executor = executor;
+	}
+
+	// the record is written on the executor
+	void append(String profile, InventoryTotalRunRecord record)
+	{
+		if (profile == null)
+		{
+			return;
+		}
+
+		executor.execute(() ->
+		{
+			try
+			{
+				write(profile, record);
+			}
+			catch (IOException e)
+			{
+				log.warn("Unable to write inventory total run history", e);
+			}
+		});
+	}
+
+	int getRunCount(String profile) throws IOException
+	{
+		File indexFile = getIndexFile(profile);
+		if (!indexFile.exists())
+		{
+			return 0;
+		}
+		return (int) (indexFile.length() / INDEX_ENTRY_SIZE);
+	}
+
+	// newest first, skipping the newest offset runs
+	synchronized List<InventoryTotalRunRecord> getRuns(String profile, int offset, int limit) throws IOException
+	{
+		int count = getRunCount(profile);
+		int last = count - 1 - offset;
+		int first = Math.max(0, last - limit + 1);
+
+		if (last < 0 || limit <= 0)
+		{
+			return Collections.emptyList();
+		}
+
+		List<InventoryTotalRunRecord> runs = new ArrayList<>(last - first + 1);
+
+		try (RandomAccessFile index = new RandomAccessFile(getIndexFile(profile), "r");
+			 RandomAccessFile runLog = new RandomAccessFile(getLogFile(profile), "r"))
+		{
+			for (int i = last; i >= first; i--)
+			{
+				index.seek((long) i * INDEX_ENTRY_SIZE);
+				runs.add(readRecord(runLog, index.readLong()));
+			}
+		}
+
+		return runs;
+	}
+
+	// position of the first run that ended at or after time, or the run count if there is none
+	// runs are appended as they end, so the index is ordered by end time
+	synchronized int findRun(String profile, long time) throws IOException
+	{
+		int count = getRunCount(profile);
+		if (count == 0)
+		{
+			return 0;
+		}
+
+		try (RandomAccessFile index = new RandomAccessFile(getIndexFile(profile), "r"))
+		{
+			int low = 0;
+			int high = count;
+			while (low < high)
+			{
+				int mid = (low + high) >>> 1;
+				index.seek((long) mid * INDEX_ENTRY_SIZE + 16);
+				if (index.readLong() < time)
+				{
+					low = mid + 1;
+				}
+				else
+				{
+					high = mid;
+				}
+			}
+			return low;
+		}
+	}
+
+	private synchronized void write(String profile, InventoryTotalRunRecord record) throws IOException
+	{
+		if (!dir.exists() && !dir.mkdirs())
+		{
+			throw new IOException("Unable to create " + dir);
+		}
+
+		byte[] bytes = encode(record);
+
+		try (RandomAccessFile index = new RandomAccessFile(getIndexFile(profile), "rw");
+			 RandomAccessFile runLog = new RandomAccessFile(getLogFile(profile), "rw"))
+		{
+			// drop a partially written entry
+			long indexLength = index.length() - index.length() % INDEX_ENTRY_SIZE;
+			index.setLength(indexLength);
+
+			// and anything written to the log after the last indexed record, e.g. a record torn by a crash
+			long offset = LOG_HEADER_SIZE;
+			if (indexLength > 0)
+			{
+				index.seek(indexLength - INDEX_ENTRY_SIZE);
+				long lastOffset = index.readLong();
+				runLog.seek(lastOffset);
+				offset = lastOffset + 4 + runLog.readInt();
+			}
+
+			if (runLog.length() < LOG_HEADER_SIZE)
+			{
+				runLog.setLength(0);
+				runLog.writeInt(LOG_MAGIC);
+			}
+
+			runLog.setLength(offset);
+			runLog.seek(offset);
+			runLog.writeInt(bytes.length);
+			runLog.write(bytes);
+
+			// the index entry is written last, a record without one is never read
+			index.seek(indexLength);
+			index.writeLong(offset);
+			index.writeLong(record.getStartTime());
+			index.writeLong(record.getEndTime());
+		}
+	}
+
+	private static InventoryTotalRunRecord readRecord(RandomAccessFile runLog, long offset) throws IOException
+	{
+		if (offset < LOG_HEADER_SIZE)
+		{
+			throw new IOException("Invalid run history offset " + offset);
+		}
+
+		runLog.seek(0);
+		if (runLog.readInt() != LOG_MAGIC)
+		{
+			throw new IOException("Unknown run history format");
+		}
+
+		runLog.seek(offset);
+		byte[] bytes = new byte[runLog.readInt()];
+		runLog.readFully(bytes);
+
+		return decode(bytes);
+	}
+
+	static byte[] encode(InventoryTotalRunRecord record) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + record.getItemCount() * 8);
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		InventoryTotalVarInts.writeVarLong(out, record.getStartTime());
+		InventoryTotalVarInts.writeVarLong(out, record.getEndTime() - record.getStartTime());
+		InventoryTotalVarInts.writeSignedVarLong(out, record.getInitialGp());
+		InventoryTotalVarInts.writeSignedVarLong(out, record.getInitialGpHA());
+		InventoryTotalVarInts.writeSignedVarLong(out, record.getFinalGp());
+		InventoryTotalVarInts.writeSignedVarLong(out, record.getFinalGpHA());
+
+		InventoryTotalVarInts.writeVarInt(out, record.getItemCount());
+		for (int i = 0; i < record.getItemCount(); i++)
+		{
+			InventoryTotalVarInts.writeVarInt(out, record.getItemId(i));
+			InventoryTotalVarInts.writeSignedVarInt(out, record.getQtyDifference(i));
+			InventoryTotalVarInts.writeSignedVarInt(out, record.getPrice(i));
+			InventoryTotalVarInts.writeSignedVarInt(out, record.getPriceHA(i));
+		}
+
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	static InventoryTotalRunRecord decode(byte[] bytes) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+		long startTime = InventoryTotalVarInts.readVarLong(in);
+		long endTime = startTime + InventoryTotalVarInts.readVarLong(in);
+		long initialGp = InventoryTotalVarInts.readSignedVarLong(in);
+		long initialGpHA = InventoryTotalVarInts.readSignedVarLong(in);
+		long finalGp = InventoryTotalVarInts.readSignedVarLong(in);
+		long finalGpHA = InventoryTotalVarInts.readSignedVarLong(in);
+
+		int itemCount = InventoryTotalVarInts.readVarInt(in);
+		int[] itemIds = new int[itemCount];
+		int[] qtyDifferences = new int[itemCount];
+		int[] prices = new int[itemCount];
+		int[] pricesHA = new int[itemCount];
+
+		for (int i = 0; i < itemCount; i++)
+		{
+			itemIds[i] = InventoryTotalVarInts.readVarInt(in);
+			qtyDifferences[i] = InventoryTotalVarInts.readSignedVarInt(in);
+			prices[i] = InventoryTotalVarInts.readSignedVarInt(in);
+			pricesHA[i] = InventoryTotalVarInts.readSignedVarInt(in);
+		}
+
+		return new InventoryTotalRunRecord(startTime, endTime, initialGp, initialGpHA, finalGp, finalGpHA,
+				itemIds, qtyDifferences, prices, pricesHA);
+	}
+
+	private File getLogFile(String profile)
+	{
+		return new File(dir, fileName(profile) + ".runs");
+	}
+
+	private File getIndexFile(String profile)
+	{
+		return new File(dir, fileName(profile) + ".idx");
+	}
+
+	// per tick samples of the profile's runs, see InventoryTotalTickSeries
+	File getTickSeriesFile(String profile)
+	{
+		return new File(dir, fileName(profile) + ".ticks");
+	}
+
+	private static String fileName(String profile)
+	{
+		return profile.replaceAll("[^A-Za-z0-9._-]", "_");
+	}
+}
@@ -0,0 +1,87 @@
+package com.ericversteeg;
+
+// a finished run as stored in the run history
+// the item arrays are parallel and hold the quantity gained (or lost) for each item and the prices it was valued at
+public class InventoryTotalRunRecord
+{
+	private final long startTime;
+	private final long endTime;
+	private final long initialGp;
+	private final long initialGpHA;
+	private final long finalGp;
+	private final long finalGpHA;
+	private final int[] itemIds;
+	private final int[] qtyDifferences;
+	private final int[] prices;
+	private final int[] pricesHA;
+
+	InventoryTotalRunRecord(long startTime, long endTime, long initialGp, long initialGpHA, long finalGp, long finalGpHA,
+							int[] itemIds, int[] qtyDifferences, int[] prices, int[] pricesHA)
+	{
+		this.startTime = startTime;
+		this.endTime = endTime;
+		this.initialGp = initialGp;
+		this.initialGpHA = initialGpHA;
+		this.finalGp = finalGp;
+		this.finalGpHA = finalGpHA;
+		this.itemIds = itemIds;
+		this.qtyDifferences = qtyDifferences;
+		this.prices = prices;
+		this.pricesHA = pricesHA;
+	}
+
+	public long getStartTime()
+	{
+		return startTime;
+	}
+
+	public long getEndTime()
+	{
+		return endTime;
+	}
+
+	public long getInitialGp()
+	{
+		return initialGp;
+	}
+
+	public long getInitialGpHA()
+	{
+		return initialGpHA;
+	}
+
+	public long getFinalGp()
+	{
+		return finalGp;
+	}
+
+	public long getFinalGpHA()
+	{
+		return finalGpHA;
+	}
+
+	public int getItemCount()
+	{
+		return itemIds.length;
+	}
+
+	public int getItemId(int index)
+	{
+		return itemIds[index];
+	}
+
+	public int getQtyDifference(int index)
+	{
+		return qtyDifferences[index];
+	}
+
+	public int getPrice(int index)
+	{
+		return prices[index];
+	}
+
+	public int getPriceHA(int index)
+	{
+		return pricesHA[index];
+	}
+}
@@ -0,0 +1,119 @@
+package com.ericversteeg;
+
+import java.util.Collections;
+import java.util.List;
+
+// immutable result of a totals recompute, published by the plugin on the client thread and only read by the overlay
+// the version increases with every recompute so that anything derived from the totals can tell when it's stale
+public class InventoryTotalSnapshot
+{
+	static final InventoryTotalSnapshot EMPTY = new InventoryTotalSnapshot(0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+			InventoryTotalMode.TOTAL, InventoryTotalState.NONE, null);
+
+	private final long version;
+	private final long inventoryGp;
+	private final long inventoryGpHA;
+	private final long equipmentGp;
+	private final long equipmentGpHA;
+	private final long bankGp;
+	private final long bankGpHA;
+	private final long inventoryQty;
+	private final long totalGp;
+	private final long profitGp;
+	private final InventoryTotalMode mode;
+	private final InventoryTotalState state;
+	// for the mode, only built while the total is hovered, null until then
+	private final List<InventoryTotalLedgerItem> ledger;
+
+	InventoryTotalSnapshot(long version, long inventoryGp, long inventoryGpHA, long equipmentGp, long equipmentGpHA,
+						   long bankGp, long bankGpHA, long inventoryQty, long totalGp, long profitGp,
+						   InventoryTotalMode mode, InventoryTotalState state, List<InventoryTotalLedgerItem> ledger)
+	{
+		this.version = version;
+		this.inventoryGp = inventoryGp;
+		this.inventoryGpHA = inventoryGpHA;
+		this.equipmentGp = equipmentGp;
+		this.equipmentGpHA = equipmentGpHA;
+		this.bankGp = bankGp;
+		this.bankGpHA = bankGpHA;
+		this.inventoryQty = inventoryQty;
+		this.totalGp = totalGp;
+		this.profitGp = profitGp;
+		this.mode = mode;
+		this.state = state;
+		this.ledger = ledger == null ? null : Collections.unmodifiableList(ledger);
+	}
+
+	// the same totals and version with their ledger
+	InventoryTotalSnapshot withLedger(List<InventoryTotalLedgerItem> ledger)
+	{
+		return new InventoryTotalSnapshot(version, inventoryGp, inventoryGpHA, equipmentGp, equipmentGpHA, bankGp, bankGpHA,
+				inventoryQty, totalGp, profitGp, mode, state, ledger);
+	}
+
+	public long getVersion()
+	{
+		return version;
+	}
+
+	public long getInventoryGp()
+	{
+		return inventoryGp;
+	}
+
+	public long getInventoryGpHA()
+	{
+		return inventoryGpHA;
+	}
+
+	public long getEquipmentGp()
+	{
+		return equipmentGp;
+	}
+
+	public long getEquipmentGpHA()
+	{
+		return equipmentGpHA;
+	}
+
+	public long getBankGp()
+	{
+		return bankGp;
+	}
+
+	public long getBankGpHA()
+	{
+		return bankGpHA;
+	}
+
+	public long getInventoryQty()
+	{
+		return inventoryQty;
+	}
+
+	public long getTotalGp()
+	{
+		return totalGp;
+	}
+
+	// the total shown, less the run's starting value in profit / loss mode
+	public long getProfitGp()
+	{
+		return profitGp;
+	}
+
+	public InventoryTotalMode getMode()
+	{
+		return mode;
+	}
+
+	public InventoryTotalState getState()
+	{
+		return state;
+	}
+
+	public List<InventoryTotalLedgerItem> getLedger()
+	{
+		return ledger;
+	}
+}
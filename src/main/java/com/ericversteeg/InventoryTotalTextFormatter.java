@@ -0,0 +1,196 @@
+package com.ericversteeg;
+
+// formats gp amounts and run times for the overlay by writing into a reusable char buffer
+// the last gp and run time text are remembered, so rendering the same values again doesn't allocate
+class InventoryTotalTextFormatter
+{
+	private static final long THOUSAND = 1000L;
+	private static final long MILLION = 1000000L;
+	private static final long BILLION = 1000000000L;
+
+	private final char[] buffer = new char[64];
+
+	private String gpText;
+	private long gpValue;
+	private boolean gpExact;
+
+	private String runTimeText;
+	private long runTimeSecs;
+	private long runTimeRate;
+	private boolean runTimeShowRate;
+
+	// 1.5M style text, or the exact value with grouping when exact is set
+	String formatGp(long total, boolean exact)
+	{
+		if (gpText != null && total == gpValue && exact == gpExact)
+		{
+			return gpText;
+		}
+
+		int start = exact ? writeGrouped(total, buffer.length, true) : writeShort(total, buffer.length);
+
+		gpText = new String(buffer, start, buffer.length - start);
+		gpValue = total;
+		gpExact = exact;
+
+		return gpText;
+	}
+
+	// exact value with grouping, e.g. 1,234,567
+	String formatExactGp(long total)
+	{
+		int start = writeGrouped(total, buffer.length, true);
+		return new String(buffer, start, buffer.length - start);
+	}
+
+	// 1.5M style text, without remembering it
+	String formatShortGp(long total)
+	{
+		int start = writeShort(total, buffer.length);
+		return new String(buffer, start, buffer.length - start);
+	}
+
+	// run time wrapped for display next to the total, e.g. " (01:02:03)" or " (02:03)" under an hour
+	String formatRunTime(long runTime)
+	{
+		return formatRunTime(runTime, 0, false);
+	}
+
+	// run time followed by gp per hour, e.g. " (02:03, 1.5M/h)"
+	String formatRunTime(long runTime, long gpPerHour)
+	{
+		return formatRunTime(runTime, gpPerHour, true);
+	}
+
+	private String formatRunTime(long runTime, long gpPerHour, boolean showRate)
+	{
+		long totalSecs = runTime / 1000;
+
+		if (runTimeText != null && totalSecs == runTimeSecs
+				&& showRate == runTimeShowRate && (!showRate || gpPerHour == runTimeRate))
+		{
+			return runTimeText;
+		}
+
+		long totalMins = totalSecs / 60;
+
+		long hrs = totalMins / 60;
+		long mins = totalMins % 60;
+		long secs = totalSecs % 60;
+
+		int pos = buffer.length;
+		buffer[--pos] = ')';
+
+		if (showRate)
+		{
+			buffer[--pos] = 'h';
+			buffer[--pos] = '/';
+			pos = writeShort(gpPerHour, pos);
+			buffer[--pos] = ' ';
+			buffer[--pos] = ',';
+		}
+
+		pos = writePadded(secs, pos);
+		buffer[--pos] = ':';
+		pos = writePadded(mins, pos);
+
+		if (hrs > 0)
+		{
+			buffer[--pos] = ':';
+			pos = writePadded(hrs, pos);
+		}
+
+		buffer[--pos] = '(';
+		buffer[--pos] = ' ';
+
+		runTimeText = new String(buffer, pos, buffer.length - pos);
+		runTimeSecs = totalSecs;
+		runTimeRate = gpPerHour;
+		runTimeShowRate = showRate;
+
+		return runTimeText;
+	}
+
+	// truncated to one decimal, and the decimal is left out when it's 0
+	private int writeShort(long total, int end)
+	{
+		long unit;
+		char suffix;
+
+		if (total >= BILLION || total <= -BILLION)
+		{
+			unit = BILLION;
+			suffix = 'B';
+		}
+		else if (total >= MILLION || total <= -MILLION)
+		{
+			unit = MILLION;
+			suffix = 'M';
+		}
+		else if (total >= THOUSAND || total <= -THOUSAND)
+		{
+			unit = THOUSAND;
+			suffix = 'K';
+		}
+		else
+		{
+			return writeGrouped(total, end, true);
+		}
+
+		long tenths = total / (unit / 10);
+
+		int pos = end;
+		buffer[--pos] = suffix;
+
+		int fraction = (int) Math.abs(tenths % 10);
+		if (fraction != 0)
+		{
+			buffer[--pos] = (char) ('0' + fraction);
+			buffer[--pos] = '.';
+		}
+
+		return writeGrouped(tenths / 10, pos, false);
+	}
+
+	// writes right to left ending before end and returns the start index
+	private int writeGrouped(long value, int end, boolean grouped)
+	{
+		int pos = end;
+
+		// work with the negative value so that Long.MIN_VALUE doesn't overflow
+		boolean negative = value < 0;
+		long remaining = negative ? value : -value;
+
+		int digits = 0;
+		do
+		{
+			if (grouped && digits > 0 && digits % 3 == 0)
+			{
+				buffer[--pos] = ',';
+			}
+
+			buffer[--pos] = (char) ('0' - (remaining % 10));
+			remaining /= 10;
+			digits++;
+		}
+		while (remaining != 0);
+
+		if (negative)
+		{
+			buffer[--pos] = '-';
+		}
+
+		return pos;
+	}
+
+	// at least two digits
+	private int writePadded(long value, int end)
+	{
+		int pos = writeGrouped(value, end, false);
+		if (end - pos < 2)
+		{
+			buffer[--pos] = '0';
+		}
+		return pos;
+	}
+}
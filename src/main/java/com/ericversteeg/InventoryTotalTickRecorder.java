@@ -0,0 +1,141 @@
+package com.ericversteeg;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+
+// records a run's per tick samples to its tick series without the client thread touching the file
+// samples are buffered here a block at a time and only the filled arrays are handed to the executor, which trims,
+// opens, writes and closes the tick series in the order the tasks were queued
+@Slf4j
+class InventoryTotalTickRecorder
+{
+	private final ScheduledExecutorService executor;
+	private final File file;
+	private final long runStartTime;
+
+	// filled on the client thread
+	private long[][] columns = newColumns();
+	private int count = 0;
+
+	// only used on the executor, null until it's opened or after writing failed
+	private InventoryTotalTickSeries series;
+
+	private InventoryTotalTickRecorder(ScheduledExecutorService executor, File file, long runStartTime)
+	{
+		this.executor = executor;
+		this.file = file;
+		this.runStartTime = runStartTime;
+	}
+
+	// the file is trimmed and opened on the executor
+	static InventoryTotalTickRecorder start(File file, long runStartTime, ScheduledExecutorService executor)
+	{
+		InventoryTotalTickRecorder recorder = new InventoryTotalTickRecorder(executor, file, runStartTime);
+		executor.execute(recorder::open);
+		return recorder;
+	}
+
+	void append(long tick, long gp, long gpHA, long qty)
+	{
+		columns[InventoryTotalTickSeries.TICK][count] = tick;
+		columns[InventoryTotalTickSeries.GP][count] = gp;
+		columns[InventoryTotalTickSeries.GP_HA][count] = gpHA;
+		columns[InventoryTotalTickSeries.QTY][count] = qty;
+		count++;
+
+		if (count == InventoryTotalTickSeries.BLOCK_SIZE)
+		{
+			long[][] block = columns;
+			executor.execute(() -> write(block, InventoryTotalTickSeries.BLOCK_SIZE));
+
+			columns = newColumns();
+			count = 0;
+		}
+	}
+
+	// hands off what's left and closes the file, nothing can be appended after
+	void close()
+	{
+		long[][] block = columns;
+		int blockCount = count;
+		executor.execute(() ->
+		{
+			write(block, blockCount);
+			closeSeries();
+		});
+
+		columns = null;
+		count = 0;
+	}
+
+	private void open()
+	{
+		try
+		{
+			InventoryTotalTickSeries.trim(file);
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to trim tick series {}", file, e);
+		}
+
+		try
+		{
+			series = InventoryTotalTickSeries.open(file, runStartTime);
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to open tick series {}", file, e);
+		}
+	}
+
+	// the series writes a block each time it has BLOCK_SIZE samples, so a full block is written here
+	private void write(long[][] block, int blockCount)
+	{
+		if (series == null)
+		{
+			return;
+		}
+
+		try
+		{
+			for (int i = 0; i < blockCount; i++)
+			{
+				series.append(block[InventoryTotalTickSeries.TICK][i], block[InventoryTotalTickSeries.GP][i],
+						block[InventoryTotalTickSeries.GP_HA][i], block[InventoryTotalTickSeries.QTY][i]);
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to record tick series {}", file, e);
+			closeSeries();
+		}
+	}
+
+	private void closeSeries()
+	{
+		if (series == null)
+		{
+			return;
+		}
+
+		try
+		{
+			series.close();
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to close tick series {}", file, e);
+		}
+
+		series = null;
+	}
+
+	private static long[][] newColumns()
+	{
+		return new long[InventoryTotalTickSeries.COLUMN_COUNT][InventoryTotalTickSeries.BLOCK_SIZE];
+	}
+}
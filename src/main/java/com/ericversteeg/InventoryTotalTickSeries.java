@@ -0,0 +1,338 @@
+package com.ericversteeg;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+// per tick samples of runs (tick, gp, high alch gp, quantity), every run of a profile appended to one file
+// samples are buffered in blocks of BLOCK_SIZE ticks and each block is written column by column,
+// every column delta-of-delta encoded as signed varints, so steady values cost about a byte per column per tick
+// each block starts with its length and the start time of its run, so a run's blocks are found by skipping the others
+// the header holds the end of the last complete block, anything after it is ignored
+// blocks are written through the channel and the file is only mapped for reading, a file can't be resized or
+// replaced on windows while it's mapped and a mapping is only released when it's garbage collected
+class InventoryTotalTickSeries implements Closeable
+{
+	static final int TICK = 0;
+	static final int GP = 1;
+	static final int GP_HA = 2;
+	static final int QTY = 3;
+	static final int COLUMN_COUNT = 4;
+	static final int BLOCK_SIZE = 256;
+
+	// trimmed to half by dropping the oldest runs once it's grown past this, about a hundred hours of runs
+	static final long MAX_FILE_BYTES = 16 * 1024 * 1024;
+
+	private static final int MAGIC = 0x49545332; // ITS2
+	private static final int HEADER_SIZE = 16;
+	private static final int END_POSITION_OFFSET = 8;
+	// the block length and the run's start time
+	private static final int BLOCK_HEADER_SIZE = 12;
+
+	public interface Consumer
+	{
+		void accept(long tick, long gp, long gpHA, long qty);
+	}
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final long runStartTime;
+	private long end;
+
+	private final long[][] columns = new long[COLUMN_COUNT][BLOCK_SIZE];
+	private int count = 0;
+
+	private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream(BLOCK_SIZE * COLUMN_COUNT);
+	private final DataOutputStream blockOut = new DataOutputStream(blockBytes);
+	private final ByteBuffer endBuffer = ByteBuffer.allocate(8);
+
+	private InventoryTotalTickSeries(RandomAccessFile file, long runStartTime) throws IOException
+	{
+		this.file = file;
+		this.channel = file.getChannel();
+		this.runStartTime = runStartTime;
+
+		end = readEnd(channel);
+		if (end < 0)
+		{
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(0, MAGIC);
+			header.putLong(END_POSITION_OFFSET, HEADER_SIZE);
+			channel.truncate(0);
+			writeFully(header, 0);
+			end = HEADER_SIZE;
+		}
+	}
+
+	// for appending the samples of the run starting at runStartTime to the file, which is started over if it isn't a
+	// tick series
+	static InventoryTotalTickSeries open(File seriesFile, long runStartTime) throws IOException
+	{
+		File dir = seriesFile.getParentFile();
+		if (dir != null && !dir.exists() && !dir.mkdirs())
+		{
+			throw new IOException("Unable to create " + dir);
+		}
+
+		RandomAccessFile file = new RandomAccessFile(seriesFile, "rw");
+		try
+		{
+			return new InventoryTotalTickSeries(file, runStartTime);
+		}
+		catch (IOException e)
+		{
+			file.close();
+			throw e;
+		}
+	}
+
+	void append(long tick, long gp, long gpHA, long qty) throws IOException
+	{
+		columns[TICK][count] = tick;
+		columns[GP][count] = gp;
+		columns[GP_HA][count] = gpHA;
+		columns[QTY][count] = qty;
+		count++;
+
+		if (count == BLOCK_SIZE)
+		{
+			flush();
+		}
+	}
+
+	// writes the buffered samples as a block, the header is only moved past it once it's written
+	void flush() throws IOException
+	{
+		if (count == 0)
+		{
+			return;
+		}
+
+		blockBytes.reset();
+		blockOut.writeInt(0);
+		blockOut.writeLong(runStartTime);
+		InventoryTotalVarInts.writeVarInt(blockOut, count);
+		for (long[] column: columns)
+		{
+			writeColumn(blockOut, column, count);
+		}
+		blockOut.flush();
+
+		ByteBuffer block = ByteBuffer.wrap(blockBytes.toByteArray());
+		block.putInt(0, block.remaining() - 4);
+		writeFully(block, end);
+		end += block.capacity();
+
+		endBuffer.clear();
+		endBuffer.putLong(0, end);
+		writeFully(endBuffer, END_POSITION_OFFSET);
+
+		count = 0;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			flush();
+			channel.force(false);
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	// the samples of the run starting at runStartTime, in the order they were appended
+	static void read(File seriesFile, long runStartTime, Consumer consumer) throws IOException
+	{
+		try (RandomAccessFile file = new RandomAccessFile(seriesFile, "r"))
+		{
+			FileChannel channel = file.getChannel();
+			long end = readEnd(channel);
+			if (end < 0)
+			{
+				throw new IOException("Unknown tick series format");
+			}
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+			buffer.position(HEADER_SIZE);
+
+			long[][] columns = new long[COLUMN_COUNT][BLOCK_SIZE];
+
+			while (buffer.position() < end)
+			{
+				int blockEnd = buffer.getInt();
+				blockEnd += buffer.position();
+
+				if (buffer.getLong() != runStartTime)
+				{
+					buffer.position(blockEnd);
+					continue;
+				}
+
+				int blockCount = InventoryTotalVarInts.readVarInt(buffer);
+				for (long[] column: columns)
+				{
+					readColumn(buffer, column, blockCount);
+				}
+
+				for (int i = 0; i < blockCount; i++)
+				{
+					consumer.accept(columns[TICK][i], columns[GP][i], columns[GP_HA][i], columns[QTY][i]);
+				}
+
+				buffer.position(blockEnd);
+			}
+		}
+	}
+
+	// drops the oldest runs once the file has grown past MAX_FILE_BYTES, by copying the blocks of the runs kept to
+	// a new file that replaces it. not to be called while the file is open for appending
+	static void trim(File seriesFile) throws IOException
+	{
+		if (!seriesFile.exists() || seriesFile.length() <= MAX_FILE_BYTES)
+		{
+			return;
+		}
+
+		long keepFrom;
+		long end;
+		try (RandomAccessFile file = new RandomAccessFile(seriesFile, "r"))
+		{
+			FileChannel channel = file.getChannel();
+			end = readEnd(channel);
+			if (end < 0)
+			{
+				// started over when it's next opened
+				return;
+			}
+
+			keepFrom = findKeepFrom(channel, end, end - MAX_FILE_BYTES / 2);
+		}
+
+		File trimmed = new File(seriesFile.getPath() + ".tmp");
+		try (RandomAccessFile in = new RandomAccessFile(seriesFile, "r");
+			RandomAccessFile out = new RandomAccessFile(trimmed, "rw"))
+		{
+			FileChannel outChannel = out.getChannel();
+			outChannel.truncate(0);
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(0, MAGIC);
+			header.putLong(END_POSITION_OFFSET, HEADER_SIZE + end - keepFrom);
+			outChannel.write(header);
+
+			FileChannel inChannel = in.getChannel();
+			long position = keepFrom;
+			while (position < end)
+			{
+				position += inChannel.transferTo(position, end - position, outChannel);
+			}
+			outChannel.force(false);
+		}
+
+		Files.move(trimmed.toPath(), seriesFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	// the first block at or after dropUntil that starts a run, so no run is kept in part
+	private static long findKeepFrom(FileChannel channel, long end, long dropUntil) throws IOException
+	{
+		ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+		long position = HEADER_SIZE;
+		long prevRunStartTime = 0;
+
+		while (position < end)
+		{
+			blockHeader.clear();
+			while (blockHeader.hasRemaining())
+			{
+				if (channel.read(blockHeader, position + blockHeader.position()) < 0)
+				{
+					throw new IOException("Truncated tick series");
+				}
+			}
+
+			int blockLength = blockHeader.getInt(0);
+			long blockRunStartTime = blockHeader.getLong(4);
+			if (position >= dropUntil && blockRunStartTime != prevRunStartTime)
+			{
+				return position;
+			}
+
+			prevRunStartTime = blockRunStartTime;
+			position += 4 + blockLength;
+		}
+
+		return end;
+	}
+
+	// -1 when the file isn't a tick series
+	private static long readEnd(FileChannel channel) throws IOException
+	{
+		long size = channel.size();
+		if (size < HEADER_SIZE)
+		{
+			return -1;
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining())
+		{
+			if (channel.read(header, header.position()) < 0)
+			{
+				return -1;
+			}
+		}
+
+		long end = header.getLong(END_POSITION_OFFSET);
+		if (header.getInt(0) != MAGIC || end < HEADER_SIZE || end > size)
+		{
+			return -1;
+		}
+		return end;
+	}
+
+	private void writeFully(ByteBuffer buffer, long position) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			position += channel.write(buffer, position);
+		}
+	}
+
+	private static void writeColumn(DataOutputStream out, long[] values, int count) throws IOException
+	{
+		long prev = 0;
+		long prevDelta = 0;
+		for (int i = 0; i < count; i++)
+		{
+			long delta = values[i] - prev;
+			InventoryTotalVarInts.writeSignedVarLong(out, delta - prevDelta);
+			prev = values[i];
+			prevDelta = delta;
+		}
+	}
+
+	private static void readColumn(ByteBuffer in, long[] values, int count) throws IOException
+	{
+		long prev = 0;
+		long prevDelta = 0;
+		for (int i = 0; i < count; i++)
+		{
+			long delta = prevDelta + InventoryTotalVarInts.readSignedVarLong(in);
+			values[i] = prev + delta;
+			prev = values[i];
+			prevDelta = delta;
+		}
+	}
+}
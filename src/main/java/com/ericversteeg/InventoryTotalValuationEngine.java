@@ -0,0 +1,607 @@
+package com.ericversteeg;
+
+import net.runelite.api.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+// values item arrays using only an item provider, so it can run without the game client
+// keeps running gp and quantity totals for the inventory, rune pouch and equipment
+// the previous contents of each are remembered slot by slot, so an update only values the slots that changed
+// every change is also added to a per-tick map of item quantity deltas
+// the bank is tracked separately by item id since its slots shift whenever a stack is added or removed,
+// and it doesn't count towards the run's quantities or prices
+class InventoryTotalValuationEngine
+{
+	static final int INVENTORY = 0;
+	static final int RUNEPOUCH = 1;
+	static final int EQUIPMENT = 2;
+
+	private static final int GROUP_COUNT = 3;
+
+	private final InventoryTotalItemProvider itemProvider;
+	private final InventoryTotalItemCache itemCache;
+
+	private InventoryTotalRunData runData;
+
+	private final Slots[] slots = new Slots[GROUP_COUNT];
+	private final long[] gp = new long[GROUP_COUNT];
+	private final long[] gpHA = new long[GROUP_COUNT];
+	private final long[] qty = new long[GROUP_COUNT];
+
+	private final InventoryTotalIntMap tickDeltas = new InventoryTotalIntMap();
+
+	private InventoryTotalIntMap bankQtys = new InventoryTotalIntMap(1024);
+	private InventoryTotalIntMap nextBankQtys = new InventoryTotalIntMap(1024);
+	// what each bank stack was valued at when it was added, never saved, so removing a stack takes off exactly
+	// what adding it added and the bank's items don't fill up the run's prices
+	private final InventoryTotalIntMap bankGePrices = new InventoryTotalIntMap(1024);
+	private final InventoryTotalIntMap bankHaPrices = new InventoryTotalIntMap(1024);
+	private boolean bankKnown = false;
+	private long bankGp = 0;
+	private long bankGpHA = 0;
+
+	// contents of a container as of the last update
+	private static class Slots
+	{
+		private int[] ids = new int[0];
+		private int[] qtys = new int[0];
+
+		private void ensureSize(int size)
+		{
+			if (ids.length < size)
+			{
+				int oldSize = ids.length;
+				ids = Arrays.copyOf(ids, size);
+				qtys = Arrays.copyOf(qtys, size);
+				Arrays.fill(ids, oldSize, size, -1);
+			}
+		}
+
+		private void clear()
+		{
+			Arrays.fill(ids, -1);
+			Arrays.fill(qtys, 0);
+		}
+	}
+
+	InventoryTotalValuationEngine(InventoryTotalItemProvider itemProvider)
+	{
+		this.itemProvider = itemProvider;
+		this.itemCache = new InventoryTotalItemCache(itemProvider);
+
+		for (int i = 0; i < GROUP_COUNT; i++)
+		{
+			slots[i] = new Slots();
+		}
+	}
+
+	void setIgnoreMatcher(InventoryTotalIgnoreMatcher ignoreMatcher)
+	{
+		itemCache.setIgnoreMatcher(ignoreMatcher);
+	}
+
+	// forgets all contents so the next updates value everything again, e.g. after prices were cleared
+	void reset(InventoryTotalRunData runData)
+	{
+		this.runData = runData;
+
+		for (Slots s: slots)
+		{
+			s.clear();
+		}
+
+		Arrays.fill(gp, 0);
+		Arrays.fill(gpHA, 0);
+		Arrays.fill(qty, 0);
+
+		runData.itemQtys.clear();
+		tickDeltas.clear();
+
+		bankQtys.clear();
+		bankGePrices.clear();
+		bankHaPrices.clear();
+		bankKnown = false;
+		bankGp = 0;
+		bankGpHA = 0;
+	}
+
+	void updateBank(Item[] items)
+	{
+		nextBankQtys.clear();
+
+		for (Item item: items)
+		{
+			// placeholders have a quantity of 0
+			if (item.getId() >= 0 && item.getQuantity() > 0)
+			{
+				nextBankQtys.add(item.getId(), item.getQuantity());
+			}
+		}
+
+		// only stacks that were added, removed or changed size get valued
+		nextBankQtys.forEach((itemId, itemQty) -> {
+			int prevQty = bankQtys.get(itemId);
+			if (itemQty != prevQty)
+			{
+				applyBankDelta(itemId, itemQty - prevQty, false);
+			}
+		});
+
+		bankQtys.forEach((itemId, prevQty) -> {
+			if (!nextBankQtys.containsKey(itemId))
+			{
+				applyBankDelta(itemId, -prevQty, true);
+			}
+		});
+
+		InventoryTotalIntMap swap = bankQtys;
+		bankQtys = nextBankQtys;
+		nextBankQtys = swap;
+
+		bankKnown = true;
+	}
+
+	private void applyBankDelta(int itemId, int qtyDelta, boolean removed)
+	{
+		if (itemCache.isIgnored(itemId))
+		{
+			return;
+		}
+
+		if (!bankGePrices.containsKey(itemId))
+		{
+			final int realItemId = itemCache.getCanonicalId(itemId);
+			bankGePrices.put(itemId, getBankGePrice(realItemId));
+			bankHaPrices.put(itemId, getBankHaPrice(realItemId));
+		}
+
+		bankGp += (long) qtyDelta * bankGePrices.get(itemId);
+		bankGpHA += (long) qtyDelta * bankHaPrices.get(itemId);
+
+		if (removed)
+		{
+			bankGePrices.remove(itemId);
+			bankHaPrices.remove(itemId);
+		}
+	}
+
+	// the run's price when the item is part of the run, so it's valued the same in the bank as when held
+	private int getBankGePrice(int realItemId)
+	{
+		if (realItemId == InventoryTotalPlugin.COINS)
+		{
+			return 1;
+		}
+
+		if (runData.prices.hasGePrice(realItemId))
+		{
+			return runData.prices.getGePrice(realItemId);
+		}
+
+		return itemProvider.getGePrice(realItemId);
+	}
+
+	private int getBankHaPrice(int realItemId)
+	{
+		if (realItemId == InventoryTotalPlugin.COINS)
+		{
+			return 1;
+		}
+
+		if (runData.prices.hasHaPrice(realItemId))
+		{
+			return runData.prices.getHaPrice(realItemId);
+		}
+
+		return itemCache.getHaPrice(realItemId);
+	}
+
+	void update(int group, Item[] items)
+	{
+		Slots s = slots[group];
+		int size = items == null ? 0 : items.length;
+		s.ensureSize(size);
+
+		for (int slot = 0; slot < s.ids.length; slot++)
+		{
+			int itemId = -1;
+			int itemQty = 0;
+
+			if (slot < size && items[slot] != null)
+			{
+				itemId = items[slot].getId();
+				itemQty = items[slot].getQuantity();
+			}
+
+			updateSlot(group, s, slot, itemId, itemQty);
+		}
+	}
+
+	void update(int group, int[] itemIds, int[] itemQtys)
+	{
+		Slots s = slots[group];
+		s.ensureSize(itemIds.length);
+
+		for (int slot = 0; slot < s.ids.length; slot++)
+		{
+			int itemId = slot < itemIds.length ? itemIds[slot] : -1;
+			int itemQty = slot < itemQtys.length ? itemQtys[slot] : 0;
+
+			updateSlot(group, s, slot, itemId, itemQty);
+		}
+	}
+
+	private void updateSlot(int group, Slots s, int slot, int itemId, int itemQty)
+	{
+		int prevId = s.ids[slot];
+		int prevQty = s.qtys[slot];
+
+		if (prevId == itemId && prevQty == itemQty)
+		{
+			return;
+		}
+
+		if (prevId == itemId)
+		{
+			applyDelta(group, itemId, itemQty - prevQty);
+		}
+		else
+		{
+			applyDelta(group, prevId, -prevQty);
+			applyDelta(group, itemId, itemQty);
+		}
+
+		s.ids[slot] = itemId;
+		s.qtys[slot] = itemQty;
+	}
+
+	private void applyDelta(int group, int itemId, int qtyDelta)
+	{
+		// empty slot
+		if (itemId < 0 || qtyDelta == 0)
+		{
+			return;
+		}
+
+		// equipment can't be noted and isn't affected by the ignore list
+		if (group != EQUIPMENT && itemCache.isIgnored(itemId))
+		{
+			return;
+		}
+
+		final int realItemId = group == EQUIPMENT ? itemId : itemCache.getCanonicalId(itemId);
+
+		gp[group] += (long) qtyDelta * getGePrice(realItemId);
+		gpHA[group] += (long) qtyDelta * getHaPrice(realItemId);
+		qty[group] += qtyDelta;
+
+		if (runData.itemQtys.add(realItemId, qtyDelta) == 0)
+		{
+			runData.itemQtys.remove(realItemId);
+		}
+
+		if (tickDeltas.add(realItemId, qtyDelta) == 0)
+		{
+			tickDeltas.remove(realItemId);
+		}
+	}
+
+	// freezes the prices of the items that haven't been priced yet in one pass, after the provider
+	// has had the chance to load them together
+	void prefetch(int[] itemIds)
+	{
+		InventoryTotalIntMap unpriced = new InventoryTotalIntMap();
+
+		for (int itemId: itemIds)
+		{
+			if (itemId < 0 || itemCache.isIgnored(itemId))
+			{
+				continue;
+			}
+
+			int realItemId = itemCache.getCanonicalId(itemId);
+			if (realItemId != InventoryTotalPlugin.COINS && !runData.prices.hasGePrice(realItemId))
+			{
+				unpriced.put(realItemId, 0);
+			}
+		}
+
+		if (unpriced.isEmpty())
+		{
+			return;
+		}
+
+		int[] realItemIds = new int[unpriced.size()];
+		int[] count = new int[1];
+		unpriced.forEach((realItemId, unused) -> realItemIds[count[0]++] = realItemId);
+
+		itemProvider.prefetch(realItemIds);
+
+		for (int realItemId: realItemIds)
+		{
+			getGePrice(realItemId);
+			getHaPrice(realItemId);
+		}
+	}
+
+	// for live prices: the current prices of what's held, what the run started with and what's in the bank that
+	// no longer match what they were valued at, by canonical item id. a reload only matters for these items, so
+	// they're what's probed, through whichever price source the totals use
+	InventoryTotalIntMap getGePriceChanges(InventoryTotalItemProvider currentPrices)
+	{
+		InventoryTotalIntMap changes = new InventoryTotalIntMap();
+		InventoryTotalPriceSnapshot prices = runData.prices;
+
+		InventoryTotalIntMap.Consumer probeRunItem = (realItemId, unused) -> {
+			if (realItemId != InventoryTotalPlugin.COINS && prices.hasGePrice(realItemId) && !changes.containsKey(realItemId))
+			{
+				int gePrice = currentPrices.getGePrice(realItemId);
+				if (gePrice != prices.getGePrice(realItemId))
+				{
+					changes.put(realItemId, gePrice);
+				}
+			}
+		};
+		runData.itemQtys.forEach(probeRunItem);
+		runData.initialItemQtys.forEach(probeRunItem);
+
+		bankGePrices.forEach((itemId, bankPrice) -> {
+			int realItemId = itemCache.getCanonicalId(itemId);
+			if (realItemId != InventoryTotalPlugin.COINS && !changes.containsKey(realItemId))
+			{
+				int gePrice = currentPrices.getGePrice(realItemId);
+				if (gePrice != bankPrice)
+				{
+					changes.put(realItemId, gePrice);
+				}
+			}
+		});
+
+		return changes;
+	}
+
+	// values what's held at the changed prices in place, only the slots and bank stacks of the changed items are
+	// adjusted. the rest of the run's prices are forgotten so they're priced again when they're next valued
+	// returns how much the ge value of what the run started with changed
+	long revalue(InventoryTotalIntMap gePriceChanges)
+	{
+		InventoryTotalPriceSnapshot prices = runData.prices;
+
+		for (int group = 0; group < GROUP_COUNT; group++)
+		{
+			Slots s = slots[group];
+			for (int slot = 0; slot < s.ids.length; slot++)
+			{
+				int itemId = s.ids[slot];
+
+				// empty slot
+				if (itemId < 0) { continue; }
+
+				// equipment can't be noted and isn't affected by the ignore list
+				if (group != EQUIPMENT && itemCache.isIgnored(itemId)) { continue; }
+
+				int realItemId = group == EQUIPMENT ? itemId : itemCache.getCanonicalId(itemId);
+				if (gePriceChanges.containsKey(realItemId) && prices.hasGePrice(realItemId))
+				{
+					gp[group] += (long) s.qtys[slot] * (gePriceChanges.get(realItemId) - prices.getGePrice(realItemId));
+				}
+			}
+		}
+
+		bankQtys.forEach((itemId, bankQty) -> {
+			if (!bankGePrices.containsKey(itemId))
+			{
+				return;
+			}
+
+			int realItemId = itemCache.getCanonicalId(itemId);
+			if (gePriceChanges.containsKey(realItemId))
+			{
+				int gePrice = gePriceChanges.get(realItemId);
+				bankGp += (long) bankQty * (gePrice - bankGePrices.get(itemId));
+				bankGePrices.put(itemId, gePrice);
+			}
+		});
+
+		long[] initialChange = new long[1];
+		gePriceChanges.forEach((realItemId, gePrice) -> {
+			if (prices.hasGePrice(realItemId))
+			{
+				initialChange[0] += (long) runData.initialItemQtys.get(realItemId) * (gePrice - prices.getGePrice(realItemId));
+				prices.putGePrice(realItemId, gePrice);
+			}
+		});
+
+		InventoryTotalIntMap itemIds = new InventoryTotalIntMap(runData.itemQtys);
+		runData.initialItemQtys.forEach((itemId, initialQty) -> itemIds.add(itemId, 0));
+		prices.retainGePrices(itemIds);
+
+		return initialChange[0];
+	}
+
+	// prices are frozen in the run data the first time an item is valued
+	private int getGePrice(int realItemId)
+	{
+		if (realItemId == InventoryTotalPlugin.COINS)
+		{
+			return 1;
+		}
+
+		if (runData.prices.hasGePrice(realItemId))
+		{
+			return runData.prices.getGePrice(realItemId);
+		}
+
+		int gePrice = itemProvider.getGePrice(realItemId);
+		runData.prices.putGePrice(realItemId, gePrice);
+		return gePrice;
+	}
+
+	private int getHaPrice(int realItemId)
+	{
+		if (realItemId == InventoryTotalPlugin.COINS)
+		{
+			return 1;
+		}
+
+		if (runData.prices.hasHaPrice(realItemId))
+		{
+			return runData.prices.getHaPrice(realItemId);
+		}
+
+		int haPrice = itemCache.getHaPrice(realItemId);
+		runData.prices.putHaPrice(realItemId, haPrice);
+		return haPrice;
+	}
+
+	long getGp(int group)
+	{
+		return gp[group];
+	}
+
+	long getGpHA(int group)
+	{
+		return gpHA[group];
+	}
+
+	long getQty(int group)
+	{
+		return qty[group];
+	}
+
+	// false until the bank has been seen since the last reset
+	boolean isBankKnown()
+	{
+		return bankKnown;
+	}
+
+	long getBankGp()
+	{
+		return bankGp;
+	}
+
+	long getBankGpHA()
+	{
+		return bankGpHA;
+	}
+
+	// quantity changes by canonical item id since the last clearTickDeltas(), valuing everything again after a
+	// reset adds everything held
+	InventoryTotalIntMap getTickDeltas()
+	{
+		return tickDeltas;
+	}
+
+	void clearTickDeltas()
+	{
+		tickDeltas.clear();
+	}
+
+	// what's held in the inventory and rune pouch, by unnoted item id, valued at the run's prices
+	List<InventoryTotalLedgerItem> getInventoryLedger(InventoryTotalPriceType priceType)
+	{
+		List<InventoryTotalLedgerItem> ledgerItems = new LinkedList<>();
+
+		InventoryTotalIntMap qtyMap = new InventoryTotalIntMap();
+		addHeldQtys(slots[INVENTORY], qtyMap);
+		addHeldQtys(slots[RUNEPOUCH], qtyMap);
+
+		final InventoryTotalPriceSnapshot prices = runData.prices;
+
+		qtyMap.forEach((itemId, qty) -> {
+			String itemName = itemCache.getName(itemId);
+
+			int total = prices.getPrice(priceType, itemId);
+
+			if (itemId == InventoryTotalPlugin.COINS || !prices.hasPrice(priceType, itemId))
+			{
+				total = 1;
+			}
+
+			ledgerItems.add(new InventoryTotalLedgerItem(itemName, qty, total));
+		});
+
+		return ledgerItems;
+	}
+
+	private void addHeldQtys(Slots s, InventoryTotalIntMap qtyMap)
+	{
+		for (int slot = 0; slot < s.ids.length; slot++)
+		{
+			int itemId = s.ids[slot];
+
+			// empty slot
+			if (itemId < 0) { continue; }
+
+			if (itemCache.isIgnored(itemId)) { continue; }
+
+			qtyMap.add(itemCache.getCanonicalId(itemId), s.qtys[slot]);
+		}
+	}
+
+	// gains and losses since the run started
+	List<InventoryTotalLedgerItem> getProfitLossLedger(InventoryTotalPriceType priceType)
+	{
+		return getProfitLossLedger(priceType, null);
+	}
+
+	// with each item's net change per hour from qtyPerHour, by canonical item id, when it isn't null
+	List<InventoryTotalLedgerItem> getProfitLossLedger(InventoryTotalPriceType priceType, IntToLongFunction qtyPerHour)
+	{
+		InventoryTotalPriceSnapshot prices = runData.prices;
+
+		InventoryTotalIntMap qtyDifferences = getQtyDifferences();
+
+		// items sharing a name (e.g. charged variants) are merged into the first entry with that name
+		Map<String, InventoryTotalLedgerItem> ledgerItemsByName = new LinkedHashMap<>();
+
+		qtyDifferences.forEach((itemId, qtyDifference) -> {
+			final String itemName = itemCache.getName(itemId);
+
+			InventoryTotalLedgerItem ledgerItem = ledgerItemsByName.get(itemName);
+
+			if (ledgerItem != null)
+			{
+				ledgerItem.addQuantityDifference(qtyDifference);
+				if (qtyPerHour != null)
+				{
+					ledgerItem.addQtyPerHour(qtyPerHour.applyAsLong(itemId));
+				}
+				return;
+			}
+
+			int price = prices.getPrice(priceType, itemId);
+
+			if (!prices.hasPrice(priceType, itemId))
+			{
+				price = 1;
+			}
+
+			if (price > 0)
+			{
+				ledgerItem = new InventoryTotalLedgerItem(itemName, qtyDifference, price);
+				if (qtyPerHour != null)
+				{
+					ledgerItem.addQtyPerHour(qtyPerHour.applyAsLong(itemId));
+				}
+				ledgerItemsByName.put(itemName, ledgerItem);
+			}
+		});
+
+		return new ArrayList<>(ledgerItemsByName.values());
+	}
+
+	// quantity gained (or lost) per item since the run started
+	InventoryTotalIntMap getQtyDifferences()
+	{
+		InventoryTotalIntMap qtyDifferences = new InventoryTotalIntMap(runData.itemQtys);
+		runData.initialItemQtys.forEach((itemId, initialQty) -> qtyDifferences.add(itemId, -initialQty));
+		return qtyDifferences;
+	}
+}
@@ -0,0 +1,131 @@
+package com.ericversteeg;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// LEB128 style variable length integers, small values take a single byte
+// signed values are zigzag encoded first so that small negative numbers stay small too
+final class InventoryTotalVarInts
+{
+	private InventoryTotalVarInts()
+	{
+	}
+
+	static void writeVarInt(DataOutput out, int value) throws IOException
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	static int readVarInt(DataInput in) throws IOException
+	{
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7)
+		{
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	static void writeVarLong(DataOutput out, long value) throws IOException
+	{
+		while ((value & ~0x7FL) != 0)
+		{
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	static long readVarLong(DataInput in) throws IOException
+	{
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7)
+		{
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+		throw new IOException("Malformed varlong");
+	}
+
+	static void writeSignedVarInt(DataOutput out, int value) throws IOException
+	{
+		writeVarInt(out, (value << 1) ^ (value >> 31));
+	}
+
+	static int readSignedVarInt(DataInput in) throws IOException
+	{
+		int value = readVarInt(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	static void writeSignedVarLong(DataOutput out, long value) throws IOException
+	{
+		writeVarLong(out, (value << 1) ^ (value >> 63));
+	}
+
+	static long readSignedVarLong(DataInput in) throws IOException
+	{
+		long value = readVarLong(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	// for decoding from a byte array, a DataInputStream reads each byte through a synchronized stream
+
+	static int readVarInt(ByteBuffer in) throws IOException
+	{
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7)
+		{
+			int b = in.get() & 0xFF;
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	static long readVarLong(ByteBuffer in) throws IOException
+	{
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7)
+		{
+			int b = in.get() & 0xFF;
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+		throw new IOException("Malformed varlong");
+	}
+
+	static int readSignedVarInt(ByteBuffer in) throws IOException
+	{
+		int value = readVarInt(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	static long readSignedVarLong(ByteBuffer in) throws IOException
+	{
+		long value = readVarLong(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,138 @@
+package com.ericversteeg;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InventoryTotalIgnoreMatcherTest
+{
+	private static final String[] ITEM_NAMES = {
+			"Cannon barrels", "Cannon base", "Cannon furnace", "Cannon stand", "Cannonball", "Granite cannonball",
+			"Coins", "Rune pouch", "Divine rune pouch", "Abyssal whip", "Shark", "Sharks", "Prayer potion(4)",
+			"Prayer potion(1)", "Super restore(4)", "Ahrim's hood", "Ushers", "hishers", "she sells", "",
+			"Dragon bones", "Superior dragon bones", "Black d'hide body", "Rune platebody", "Runite bar"
+	};
+
+	private static final String[][] ENTRY_LISTS = {
+			{"Cannon barrels", "Cannon base", "Cannon furnace", "Cannon stand"},
+			{"cannon"},
+			{"CANNON BALL", "rune"},
+			// overlapping entries that need the failure links, the classic aho-corasick set
+			{"he", "she", "his", "hers"},
+			{"pouch", "rune pouch", "e p"},
+			{"potion(", "(4)"},
+			{"ones", "dragon bones", "bone"},
+			{"d'hide"},
+			{"a", "b", "c"},
+			{},
+	};
+
+	@Test
+	public void matchesNamesLikeSubstringsDid()
+	{
+		for (String[] entries: ENTRY_LISTS)
+		{
+			InventoryTotalIgnoreMatcher matcher = InventoryTotalIgnoreMatcher.compile(Arrays.asList(entries));
+
+			for (int i = 0; i < ITEM_NAMES.length; i++)
+			{
+				assertEquals(Arrays.toString(entries) + " " + ITEM_NAMES[i],
+						containsAny(entries, ITEM_NAMES[i]), matcher.isIgnored(i, i, ITEM_NAMES[i]));
+			}
+		}
+	}
+
+	@Test
+	public void matchesWildcardsAgainstTheWholeName()
+	{
+		InventoryTotalIgnoreMatcher matcher = InventoryTotalIgnoreMatcher.compile(
+				Arrays.asList("prayer potion(*)", "*pouch", "super*(4)"));
+
+		assertTrue(matcher.isIgnored(1, 1, "Prayer potion(4)"));
+		assertTrue(matcher.isIgnored(2, 2, "Prayer potion(1)"));
+		assertTrue(matcher.isIgnored(3, 3, "Rune pouch"));
+		assertTrue(matcher.isIgnored(4, 4, "Divine rune pouch"));
+		assertTrue(matcher.isIgnored(5, 5, "Super restore(4)"));
+		assertFalse(matcher.isIgnored(6, 6, "Prayer potion"));
+		assertFalse(matcher.isIgnored(7, 7, "Rune pouch (l)"));
+		assertFalse(matcher.isIgnored(8, 8, "Super restore(3)"));
+		// regex characters in an entry are taken literally
+		assertFalse(matcher.isIgnored(9, 9, "Prayer potionX4)"));
+	}
+
+	@Test
+	public void matchesItemIds()
+	{
+		InventoryTotalIgnoreMatcher matcher = InventoryTotalIgnoreMatcher.compile(Arrays.asList("#4151", " # 995 "));
+
+		assertTrue(matcher.isIgnored(4151, 4151, "Abyssal whip"));
+		assertTrue(matcher.isIgnored(995, 995, "Coins"));
+		// the noted whip, by its unnoted id
+		assertTrue(matcher.isIgnored(4152, 4151, "Abyssal whip"));
+		assertFalse(matcher.isIgnored(4153, 4153, "Granite maul"));
+		// an id entry isn't a name
+		assertFalse(matcher.isIgnored(1, 1, "#4151"));
+	}
+
+	@Test
+	public void matchesNotedItemIds()
+	{
+		// an entry holding the noted id matches the noted item, but not the unnoted one
+		InventoryTotalIgnoreMatcher matcher = InventoryTotalIgnoreMatcher.compile(Collections.singletonList("#4152"));
+
+		assertTrue(matcher.isIgnored(4152, 4151, "Abyssal whip"));
+		assertFalse(matcher.isIgnored(4151, 4151, "Abyssal whip"));
+	}
+
+	@Test
+	public void matchesNumbersAsNames()
+	{
+		// saved lists from before ids were matched hold numbers that were names
+		InventoryTotalIgnoreMatcher matcher = InventoryTotalIgnoreMatcher.compile(Arrays.asList("4", "995", "#"));
+
+		assertTrue(matcher.isIgnored(2434, 2434, "Prayer potion(4)"));
+		assertFalse(matcher.isIgnored(995, 995, "Coins"));
+		assertTrue(matcher.isIgnored(1, 1, "Rune #995"));
+	}
+
+	@Test
+	public void skipsBlankEntries()
+	{
+		InventoryTotalIgnoreMatcher matcher = InventoryTotalIgnoreMatcher.compile(Arrays.asList("", "  ", null));
+
+		assertFalse(matcher.isIgnored(995, 995, "Coins"));
+		assertFalse(InventoryTotalIgnoreMatcher.compile(Collections.singletonList("")).isIgnored(1, 1, "Shark"));
+		assertFalse(InventoryTotalIgnoreMatcher.NONE.isIgnored(1, 1, "Shark"));
+	}
+
+	@Test
+	public void remembersVerdictsPerItemId()
+	{
+		InventoryTotalIgnoreMatcher matcher = InventoryTotalIgnoreMatcher.compile(Collections.singletonList("shark"));
+
+		assertTrue(matcher.isIgnored(385, 385, "Shark"));
+		// the name of an item id doesn't change, so it isn't looked at again
+		assertTrue(matcher.isIgnored(385, 385, "Lobster"));
+		assertFalse(matcher.isIgnored(379, 379, "Lobster"));
+		assertFalse(matcher.isIgnored(379, 379, "Shark"));
+
+		// items without an id aren't remembered
+		assertTrue(matcher.isIgnored(-1, -1, "Shark"));
+		assertFalse(matcher.isIgnored(-1, -1, "Lobster"));
+	}
+
+	// how ignored items were matched before the matcher, every entry as a case insensitive substring
+	private static boolean containsAny(String[] entries, String itemName)
+	{
+		List<String> ignoredItems = Arrays.asList(entries);
+		String lcItemName = itemName.toLowerCase(Locale.ENGLISH);
+		return ignoredItems.stream().anyMatch(s -> lcItemName.contains(s.toLowerCase(Locale.ENGLISH)));
+	}
+}
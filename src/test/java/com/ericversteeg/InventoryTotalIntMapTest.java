@@ -0,0 +1,186 @@
+package com.ericversteeg;
+
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InventoryTotalIntMapTest
+{
+	@Test
+	public void putsGetsAndRemoves()
+	{
+		InventoryTotalIntMap map = new InventoryTotalIntMap();
+
+		assertEquals(0, map.get(995));
+		assertFalse(map.containsKey(995));
+
+		map.put(995, 1000);
+		map.put(0, 5);
+		map.put(-1, 7);
+		map.put(Integer.MAX_VALUE, Integer.MIN_VALUE);
+
+		assertEquals(4, map.size());
+		assertEquals(1000, map.get(995));
+		assertEquals(5, map.get(0));
+		assertEquals(7, map.get(-1));
+		assertEquals(Integer.MIN_VALUE, map.get(Integer.MAX_VALUE));
+
+		map.put(995, 0);
+		assertTrue(map.containsKey(995));
+		assertEquals(0, map.get(995));
+
+		assertEquals(3, map.add(4151, 3));
+		assertEquals(1, map.add(4151, -2));
+
+		map.remove(995);
+		map.remove(995);
+		map.remove(12345);
+		assertFalse(map.containsKey(995));
+		assertEquals(4, map.size());
+
+		map.clear();
+		assertTrue(map.isEmpty());
+		assertFalse(map.containsKey(0));
+	}
+
+	@Test
+	public void matchesHashMapAcrossProbeChainsAndResizes()
+	{
+		// a small table and a small key range, so probe chains are long, wrap past the end of the table and are
+		// broken up by removes, while growing through several resizes
+		Random random = new Random(17);
+		for (int round = 0; round < 50; round++)
+		{
+			InventoryTotalIntMap map = new InventoryTotalIntMap(2);
+			Map<Integer, Integer> expected = new HashMap<>();
+			int keyRange = 4 + random.nextInt(200);
+
+			for (int op = 0; op < 2000; op++)
+			{
+				int key = random.nextInt(keyRange) - keyRange / 4;
+				switch (random.nextInt(4))
+				{
+					case 0:
+						map.put(key, op);
+						expected.put(key, op);
+						break;
+					case 1:
+						map.add(key, 3);
+						expected.merge(key, 3, Integer::sum);
+						break;
+					default:
+						map.remove(key);
+						expected.remove(key);
+						break;
+				}
+
+				assertEquals(expected.size(), map.size());
+			}
+
+			assertMapEquals(expected, map);
+			for (int key = -keyRange; key < keyRange * 2; key++)
+			{
+				assertEquals(expected.containsKey(key), map.containsKey(key));
+			}
+		}
+	}
+
+	@Test
+	public void grows()
+	{
+		InventoryTotalIntMap map = new InventoryTotalIntMap(2);
+		int capacity = map.capacity();
+
+		for (int i = 0; i < 10_000; i++)
+		{
+			map.put(i * 31, i);
+		}
+
+		assertTrue(map.capacity() > capacity);
+		assertTrue(map.size() * 2 <= map.capacity());
+		for (int i = 0; i < 10_000; i++)
+		{
+			assertEquals(i, map.get(i * 31));
+		}
+	}
+
+	@Test
+	public void copiesIndependently()
+	{
+		InventoryTotalIntMap map = new InventoryTotalIntMap();
+		map.put(1, 1);
+
+		InventoryTotalIntMap copy = new InventoryTotalIntMap(map);
+		copy.put(1, 2);
+		copy.put(2, 2);
+
+		assertEquals(1, map.get(1));
+		assertFalse(map.containsKey(2));
+		assertEquals(2, copy.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsTheEmptyKey()
+	{
+		new InventoryTotalIntMap().put(Integer.MIN_VALUE, 1);
+	}
+
+	@Test
+	public void readsLegacyJson()
+	{
+		Gson gson = new Gson();
+
+		InventoryTotalIntMap map = gson.fromJson("{\"995\":1000,\"4151\":-1,\"0\":0}", InventoryTotalIntMap.class);
+
+		assertEquals(3, map.size());
+		assertEquals(1000, map.get(995));
+		assertEquals(-1, map.get(4151));
+		assertTrue(map.containsKey(0));
+
+		// saved run data could hold null maps
+		InventoryTotalRunData runData = gson.fromJson("{\"itemQtys\":null}", InventoryTotalRunData.class);
+		assertTrue(runData.itemQtys.isEmpty());
+	}
+
+	@Test
+	public void writesJsonTheWayGsonWritesMaps()
+	{
+		Gson gson = new Gson();
+		InventoryTotalIntMap map = new InventoryTotalIntMap();
+		map.put(995, 1000);
+		map.put(4151, -1);
+
+		String json = gson.toJson(map);
+
+		Map<String, Double> written = gson.fromJson(json, Map.class);
+		assertEquals(2, written.size());
+		assertEquals(1000.0, written.get("995"), 0);
+		assertEquals(-1.0, written.get("4151"), 0);
+
+		InventoryTotalRunDataCodecTest.assertIntMapEquals(map, gson.fromJson(json, InventoryTotalIntMap.class));
+	}
+
+	private static void assertMapEquals(Map<Integer, Integer> expected, InventoryTotalIntMap actual)
+	{
+		assertEquals(expected.size(), actual.size());
+		for (Map.Entry<Integer, Integer> entry: expected.entrySet())
+		{
+			assertTrue(actual.containsKey(entry.getKey()));
+			assertEquals((int) entry.getValue(), actual.get(entry.getKey()));
+		}
+
+		int[] count = new int[1];
+		actual.forEach((key, value) -> {
+			assertEquals(expected.get(key), Integer.valueOf(value));
+			count[0]++;
+		});
+		assertEquals(expected.size(), count[0]);
+	}
+}
@@ -0,0 +1,75 @@
+package com.ericversteeg;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InventoryTotalRateEngineTest
+{
+	private static final long HOUR = 3600000L;
+
+	@Test
+	public void sumsTickDeltasPerItem()
+	{
+		InventoryTotalRateEngine rateEngine = new InventoryTotalRateEngine();
+		rateEngine.start(0);
+
+		rateEngine.update(900, deltas(385, 1, 995, 500));
+		rateEngine.update(900, new InventoryTotalIntMap());
+		rateEngine.update(0, deltas(385, -1, 995, -500, 379, 4));
+
+		assertEquals(0, rateEngine.getItemsPerHour(385, HOUR));
+		assertEquals(0, rateEngine.getItemsPerHour(995, HOUR));
+		assertEquals(8, rateEngine.getItemsPerHour(379, HOUR / 2));
+		assertEquals(0, rateEngine.getItemsPerHour(379, 0));
+	}
+
+	@Test
+	public void takesItemsFromTheRunOnRebase()
+	{
+		InventoryTotalRateEngine rateEngine = new InventoryTotalRateEngine();
+		rateEngine.start(0);
+		rateEngine.update(100, deltas(385, 1));
+
+		// the deltas of a tick that valued everything again aren't passed on
+		rateEngine.rebase(1000, deltas(385, 2, 379, -3));
+
+		assertEquals(2, rateEngine.getItemsPerHour(385, HOUR));
+		assertEquals(-3, rateEngine.getItemsPerHour(379, HOUR));
+		assertEquals(1000, rateEngine.getRunProfit());
+		assertEquals(1000, rateEngine.getRunGpPerHour(HOUR));
+	}
+
+	@Test
+	public void ignoresUpdatesUntilStarted()
+	{
+		InventoryTotalRateEngine rateEngine = new InventoryTotalRateEngine();
+
+		rateEngine.update(100, deltas(385, 1));
+
+		assertFalse(rateEngine.isRunning());
+		assertEquals(0, rateEngine.getItemsPerHour(385, HOUR));
+
+		rateEngine.start(0);
+		rateEngine.update(600, deltas(385, 1));
+		assertTrue(rateEngine.isRunning());
+		assertTrue(rateEngine.getRecentGpPerHour() > 0);
+
+		rateEngine.reset();
+		assertFalse(rateEngine.isRunning());
+		assertEquals(0, rateEngine.getItemsPerHour(385, HOUR));
+		assertEquals(0, rateEngine.getRecentGpPerHour());
+	}
+
+	private static InventoryTotalIntMap deltas(int... entries)
+	{
+		InventoryTotalIntMap deltas = new InventoryTotalIntMap();
+		for (int i = 0; i < entries.length; i += 2)
+		{
+			deltas.put(entries[i], entries[i + 1]);
+		}
+		return deltas;
+	}
+}
@@ -0,0 +1,252 @@
+package com.ericversteeg;
+
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InventoryTotalRunDataCodecTest
+{
+	@Test
+	public void roundTrips() throws IOException
+	{
+		InventoryTotalRunData runData = createRunData();
+
+		String encoded = InventoryTotalRunDataCodec.encode(runData);
+
+		assertTrue(InventoryTotalRunDataCodec.isEncoded(encoded));
+		assertRunDataEquals(runData, InventoryTotalRunDataCodec.decode(encoded));
+	}
+
+	@Test
+	public void roundTripsLargeRuns() throws IOException
+	{
+		// enough priced items that the body is deflated
+		InventoryTotalRunData runData = createRunData();
+		Random random = new Random(5);
+		for (int i = 0; i < 500; i++)
+		{
+			runData.prices.putGePrice(i * 3, random.nextInt(Integer.MAX_VALUE));
+			runData.prices.putHaPrice(i * 3, random.nextInt(1000));
+		}
+
+		assertRunDataEquals(runData, InventoryTotalRunDataCodec.decode(InventoryTotalRunDataCodec.encode(runData)));
+	}
+
+	@Test
+	public void roundTripsEmptyRuns() throws IOException
+	{
+		InventoryTotalRunData runData = new InventoryTotalRunData();
+
+		InventoryTotalRunData decoded = InventoryTotalRunDataCodec.decode(InventoryTotalRunDataCodec.encode(runData));
+
+		assertRunDataEquals(runData, decoded);
+		assertEquals(0, decoded.prices.size());
+		assertTrue(decoded.ignoredItems.isEmpty());
+	}
+
+	@Test
+	public void rejectsVersion1() throws IOException
+	{
+		// the current body under the header of the format with separate price tables
+		byte[] encoded = decodeBase64(InventoryTotalRunDataCodec.encode(createRunData()));
+		encoded[0] = (byte) ((encoded[0] & 0x80) | 1);
+
+		assertMalformed(encodeBase64(encoded));
+	}
+
+	@Test
+	public void rejectsOversizedDeflatedData() throws IOException
+	{
+		// a few kilobytes that inflate to 8 MB of zeros
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		bytes.write(2 | 0x80);
+		try (DeflaterOutputStream out = new DeflaterOutputStream(bytes))
+		{
+			out.write(new byte[8 * 1024 * 1024]);
+		}
+
+		assertMalformed(encodeBase64(bytes.toByteArray()));
+	}
+
+	@Test
+	public void readsLegacyJson()
+	{
+		String json = "{\"profitLossInitialGp\":-1200,\"profitLossInitialGpHA\":300,"
+				+ "\"itemPrices\":{\"4151\":1500000,\"995\":1},\"itemPricesHA\":{\"4151\":72000},"
+				+ "\"initialItemQtys\":{\"995\":1000},\"itemQtys\":{\"995\":1500,\"4151\":1},"
+				+ "\"ignoredItems\":null,\"removedField\":{\"a\":[1,2]}}";
+
+		InventoryTotalRunData runData = new Gson().fromJson(json, InventoryTotalRunData.class);
+
+		assertEquals(-1200, runData.profitLossInitialGp);
+		assertEquals(300, runData.profitLossInitialGpHA);
+		assertEquals(1_500_000, runData.prices.getGePrice(4151));
+		assertEquals(1, runData.prices.getGePrice(995));
+		assertEquals(72_000, runData.prices.getHaPrice(4151));
+		assertEquals(1000, runData.initialItemQtys.get(995));
+		assertEquals(1500, runData.itemQtys.get(995));
+		assertEquals(1, runData.itemQtys.get(4151));
+		assertTrue(runData.ignoredItems.isEmpty());
+	}
+
+	@Test
+	public void roundTripsJson()
+	{
+		Gson gson = new Gson();
+		InventoryTotalRunData runData = createRunData();
+
+		assertRunDataEquals(runData, gson.fromJson(gson.toJson(runData), InventoryTotalRunData.class));
+	}
+
+	@Test
+	public void rejectsMalformedData()
+	{
+		assertMalformed(null);
+		assertMalformed("{\"profitLossInitialGp\":1}");
+		assertMalformed(InventoryTotalRunDataCodec.PREFIX);
+		assertMalformed(InventoryTotalRunDataCodec.PREFIX + "not base64!");
+		// an unknown version
+		assertMalformed(InventoryTotalRunDataCodec.PREFIX + Base64.getEncoder().encodeToString(new byte[]{0x7F, 0, 0}));
+		// a count far beyond the data
+		assertMalformed(InventoryTotalRunDataCodec.PREFIX + Base64.getEncoder().encodeToString(
+				new byte[]{2, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}));
+	}
+
+	@Test
+	public void rejectsTruncatedData() throws IOException
+	{
+		assertTruncationsRejected(createRunData());
+
+		InventoryTotalRunData large = createRunData();
+		for (int i = 0; i < 500; i++)
+		{
+			large.prices.putGePrice(i, i * 7);
+		}
+		assertTruncationsRejected(large);
+	}
+
+	@Test
+	public void rejectsCorruptData() throws IOException
+	{
+		byte[] encoded = decodeBase64(InventoryTotalRunDataCodec.encode(createRunData()));
+		Random random = new Random(11);
+
+		for (int i = 0; i < 2000; i++)
+		{
+			byte[] corrupt = encoded.clone();
+			corrupt[1 + random.nextInt(corrupt.length - 1)] = (byte) random.nextInt(256);
+
+			try
+			{
+				InventoryTotalRunDataCodec.decode(encodeBase64(corrupt));
+			}
+			catch (IOException e)
+			{
+				// either is fine, as long as it isn't a RuntimeException
+			}
+		}
+	}
+
+	private static void assertTruncationsRejected(InventoryTotalRunData runData) throws IOException
+	{
+		byte[] encoded = decodeBase64(InventoryTotalRunDataCodec.encode(runData));
+		for (int length = 1; length < encoded.length; length++)
+		{
+			assertMalformed(encodeBase64(Arrays.copyOf(encoded, length)));
+		}
+	}
+
+	private static void assertMalformed(String data)
+	{
+		try
+		{
+			InventoryTotalRunDataCodec.decode(data);
+			fail("decoded " + data);
+		}
+		catch (IOException e)
+		{
+			// expected
+		}
+	}
+
+	private static InventoryTotalRunData createRunData()
+	{
+		InventoryTotalRunData runData = new InventoryTotalRunData();
+		runData.profitLossInitialGp = -3_500_000_000L;
+		runData.profitLossInitialGpHA = Long.MIN_VALUE;
+
+		runData.prices.putGePrice(995, 1);
+		runData.prices.putGePrice(4151, 1_500_000);
+		runData.prices.putHaPrice(4151, 72_000);
+		// only ever valued at high alchemy
+		runData.prices.putHaPrice(1127, 38_400);
+		runData.prices.putGePrice(20997, Integer.MAX_VALUE);
+
+		runData.initialItemQtys.put(995, 10_000);
+		runData.initialItemQtys.put(4151, 1);
+		runData.itemQtys.put(995, -20);
+		runData.itemQtys.put(20997, 1);
+
+		runData.ignoredItems.add("Coins");
+		runData.ignoredItems.add("Rune pouch*");
+		runData.ignoredItems.add("Ahrim's hood é");
+		return runData;
+	}
+
+	private static byte[] decodeBase64(String data)
+	{
+		return Base64.getDecoder().decode(data.substring(InventoryTotalRunDataCodec.PREFIX.length()));
+	}
+
+	private static String encodeBase64(byte[] bytes)
+	{
+		return InventoryTotalRunDataCodec.PREFIX + Base64.getEncoder().encodeToString(bytes);
+	}
+
+	private static void assertRunDataEquals(InventoryTotalRunData expected, InventoryTotalRunData actual)
+	{
+		assertEquals(expected.profitLossInitialGp, actual.profitLossInitialGp);
+		assertEquals(expected.profitLossInitialGpHA, actual.profitLossInitialGpHA);
+		assertPricesEqual(expected.prices, actual.prices);
+		assertIntMapEquals(expected.initialItemQtys, actual.initialItemQtys);
+		assertIntMapEquals(expected.itemQtys, actual.itemQtys);
+		assertEquals(expected.ignoredItems, actual.ignoredItems);
+	}
+
+	private static void assertPricesEqual(InventoryTotalPriceSnapshot expected, InventoryTotalPriceSnapshot actual)
+	{
+		int[] itemIds = expected.getItemIds();
+		int[] actualItemIds = actual.getItemIds();
+		Arrays.sort(itemIds);
+		Arrays.sort(actualItemIds);
+		assertArrayEquals(itemIds, actualItemIds);
+
+		for (int itemId: itemIds)
+		{
+			assertEquals(expected.hasGePrice(itemId), actual.hasGePrice(itemId));
+			assertEquals(expected.getGePrice(itemId), actual.getGePrice(itemId));
+			assertEquals(expected.hasHaPrice(itemId), actual.hasHaPrice(itemId));
+			assertEquals(expected.getHaPrice(itemId), actual.getHaPrice(itemId));
+		}
+	}
+
+	static void assertIntMapEquals(InventoryTotalIntMap expected, InventoryTotalIntMap actual)
+	{
+		assertEquals(expected.size(), actual.size());
+		expected.forEach((key, value) -> {
+			assertTrue("missing " + key, actual.containsKey(key));
+			assertEquals(value, actual.get(key));
+		});
+	}
+}
@@ -0,0 +1,180 @@
+package com.ericversteeg;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InventoryTotalRunHistoryTest
+{
+	private static final String PROFILE = "rsprofile.abc";
+
+	private File dir;
+	private ScheduledExecutorService executor;
+	private InventoryTotalRunHistory history;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		dir = Files.createTempDirectory("inventory-total").toFile();
+		executor = Executors.newSingleThreadScheduledExecutor();
+		history = new InventoryTotalRunHistory(dir, executor);
+	}
+
+	@After
+	public void tearDown()
+	{
+		executor.shutdownNow();
+
+		File[] files = dir.listFiles();
+		if (files != null)
+		{
+			for (File file: files)
+			{
+				file.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void pagesNewestFirst() throws Exception
+	{
+		for (int i = 1; i <= 5; i++)
+		{
+			history.append(PROFILE, createRecord(i * 100, i * 100 + 50));
+		}
+		awaitWrites();
+
+		assertEquals(5, history.getRunCount(PROFILE));
+		assertStartTimes(history.getRuns(PROFILE, 0, 2), 500, 400);
+		assertStartTimes(history.getRuns(PROFILE, 2, 2), 300, 200);
+		assertStartTimes(history.getRuns(PROFILE, 4, 2), 100);
+		assertStartTimes(history.getRuns(PROFILE, 0, 10), 500, 400, 300, 200, 100);
+		assertStartTimes(history.getRuns(PROFILE, 5, 2));
+		assertStartTimes(history.getRuns(PROFILE, 0, 0));
+		assertStartTimes(history.getRuns("another profile", 0, 2));
+	}
+
+	@Test
+	public void findsRunsByEndTime() throws Exception
+	{
+		assertEquals(0, history.findRun(PROFILE, 100));
+
+		history.append(PROFILE, createRecord(0, 100));
+		history.append(PROFILE, createRecord(100, 200));
+		history.append(PROFILE, createRecord(200, 300));
+		awaitWrites();
+
+		assertEquals(0, history.findRun(PROFILE, Long.MIN_VALUE));
+		assertEquals(0, history.findRun(PROFILE, 99));
+		assertEquals(0, history.findRun(PROFILE, 100));
+		assertEquals(1, history.findRun(PROFILE, 101));
+		assertEquals(1, history.findRun(PROFILE, 200));
+		assertEquals(2, history.findRun(PROFILE, 300));
+		assertEquals(3, history.findRun(PROFILE, 301));
+		assertEquals(3, history.findRun(PROFILE, Long.MAX_VALUE));
+	}
+
+	@Test
+	public void recoversFromTornWrites() throws Exception
+	{
+		history.append(PROFILE, createRecord(100, 150));
+		history.append(PROFILE, createRecord(200, 250));
+		awaitWrites();
+
+		File logFile = new File(dir, PROFILE + ".runs");
+		File indexFile = new File(dir, PROFILE + ".idx");
+		long logLength = logFile.length();
+
+		// a record that was cut off part way, and an index entry that was too
+		try (RandomAccessFile runLog = new RandomAccessFile(logFile, "rw"))
+		{
+			runLog.seek(runLog.length());
+			runLog.writeInt(1000);
+			runLog.write(new byte[10]);
+		}
+		try (RandomAccessFile index = new RandomAccessFile(indexFile, "rw"))
+		{
+			index.seek(index.length());
+			index.write(new byte[10]);
+		}
+
+		assertEquals(2, history.getRunCount(PROFILE));
+		assertStartTimes(history.getRuns(PROFILE, 0, 5), 200, 100);
+
+		InventoryTotalRunRecord record = createRecord(300, 350);
+		history.append(PROFILE, record);
+		awaitWrites();
+
+		assertEquals(3, history.getRunCount(PROFILE));
+		assertStartTimes(history.getRuns(PROFILE, 0, 5), 300, 200, 100);
+		assertEquals(3 * 24, indexFile.length());
+		// written over the torn record
+		assertEquals(logLength + 4 + InventoryTotalRunHistory.encode(record).length, logFile.length());
+	}
+
+	@Test
+	public void roundTripsRecords() throws IOException
+	{
+		InventoryTotalRunRecord record = new InventoryTotalRunRecord(Long.MAX_VALUE - 10, Long.MAX_VALUE,
+				Long.MIN_VALUE, Long.MAX_VALUE, -1, 0,
+				new int[]{0, 995, Integer.MAX_VALUE},
+				new int[]{Integer.MIN_VALUE, -1, Integer.MAX_VALUE},
+				new int[]{Integer.MAX_VALUE, 1, 0},
+				new int[]{0, -1, Integer.MIN_VALUE});
+
+		InventoryTotalRunRecord decoded = InventoryTotalRunHistory.decode(InventoryTotalRunHistory.encode(record));
+
+		assertEquals(record.getStartTime(), decoded.getStartTime());
+		assertEquals(record.getEndTime(), decoded.getEndTime());
+		assertEquals(record.getInitialGp(), decoded.getInitialGp());
+		assertEquals(record.getInitialGpHA(), decoded.getInitialGpHA());
+		assertEquals(record.getFinalGp(), decoded.getFinalGp());
+		assertEquals(record.getFinalGpHA(), decoded.getFinalGpHA());
+		assertEquals(record.getItemCount(), decoded.getItemCount());
+		for (int i = 0; i < record.getItemCount(); i++)
+		{
+			assertEquals(record.getItemId(i), decoded.getItemId(i));
+			assertEquals(record.getQtyDifference(i), decoded.getQtyDifference(i));
+			assertEquals(record.getPrice(i), decoded.getPrice(i));
+			assertEquals(record.getPriceHA(i), decoded.getPriceHA(i));
+		}
+	}
+
+	private void awaitWrites() throws InterruptedException
+	{
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		executor = Executors.newSingleThreadScheduledExecutor();
+		history = new InventoryTotalRunHistory(dir, executor);
+	}
+
+	private static InventoryTotalRunRecord createRecord(long startTime, long endTime)
+	{
+		return new InventoryTotalRunRecord(startTime, endTime, 1000, 900, 1500 + startTime, 1200,
+				new int[]{995, 4151}, new int[]{500, -1}, new int[]{1, 1_500_000}, new int[]{1, 72_000});
+	}
+
+	private static void assertStartTimes(List<InventoryTotalRunRecord> runs, long... startTimes)
+	{
+		long[] actual = new long[runs.size()];
+		for (int i = 0; i < actual.length; i++)
+		{
+			actual[i] = runs.get(i).getStartTime();
+		}
+		assertArrayEquals(startTimes, actual);
+	}
+}
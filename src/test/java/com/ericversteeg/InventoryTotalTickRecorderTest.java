@@ -0,0 +1,89 @@
+package com.ericversteeg;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InventoryTotalTickRecorderTest
+{
+	private File dir;
+	private ScheduledExecutorService executor;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		dir = Files.createTempDirectory("inventory-total").toFile();
+		executor = Executors.newSingleThreadScheduledExecutor();
+	}
+
+	@After
+	public void tearDown()
+	{
+		executor.shutdownNow();
+
+		File[] files = dir.listFiles();
+		if (files != null)
+		{
+			for (File file: files)
+			{
+				file.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void writesRunsOnTheExecutor() throws Exception
+	{
+		File file = new InventoryTotalRunHistory(dir, executor).getTickSeriesFile("rsprofile.abc");
+		assertEquals(dir, file.getParentFile());
+
+		// a few full blocks and a part full one
+		int sampleCount = InventoryTotalTickSeries.BLOCK_SIZE * 3 + 5;
+		InventoryTotalTickRecorder recorder = InventoryTotalTickRecorder.start(file, 1, executor);
+		for (int i = 0; i < sampleCount; i++)
+		{
+			recorder.append(i, i * 100L, -i, i % 28);
+		}
+		recorder.close();
+
+		InventoryTotalTickRecorder next = InventoryTotalTickRecorder.start(file, 2, executor);
+		next.append(7, 7, 7, 7);
+		next.close();
+
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		List<long[]> samples = read(file, 1);
+		assertEquals(sampleCount, samples.size());
+		for (int i = 0; i < sampleCount; i++)
+		{
+			long[] sample = samples.get(i);
+			assertEquals(i, sample[0]);
+			assertEquals(i * 100L, sample[1]);
+			assertEquals(-i, sample[2]);
+			assertEquals(i % 28, sample[3]);
+		}
+
+		assertEquals(1, read(file, 2).size());
+	}
+
+	private static List<long[]> read(File file, long runStartTime) throws IOException
+	{
+		List<long[]> samples = new ArrayList<>();
+		InventoryTotalTickSeries.read(file, runStartTime, (tick, gp, gpHA, qty) -> samples.add(new long[]{tick, gp, gpHA, qty}));
+		return samples;
+	}
+}
@@ -0,0 +1,181 @@
+package com.ericversteeg;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InventoryTotalTickSeriesTest
+{
+	private File file;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		file = File.createTempFile("inventory-total", ".ticks");
+	}
+
+	@After
+	public void tearDown()
+	{
+		file.delete();
+		new File(file.getPath() + ".tmp").delete();
+	}
+
+	@Test
+	public void roundTripsAcrossBlocks() throws IOException
+	{
+		// more than two blocks, with the last one part full
+		int sampleCount = 256 * 2 + 37;
+		long[][] samples = new long[sampleCount][];
+		for (int i = 0; i < sampleCount; i++)
+		{
+			// gp swings up and down so the deltas and the deltas of deltas go negative
+			long gp = 1_000_000 + (i % 7 == 0 ? -i * 5000L : i * 300L);
+			long gpHA = -i * 11L;
+			long qty = i % 3 == 0 ? 28 : 3;
+			samples[i] = new long[]{1000 + i, gp, gpHA, qty};
+		}
+
+		try (InventoryTotalTickSeries series = InventoryTotalTickSeries.open(file, 1))
+		{
+			for (long[] sample: samples)
+			{
+				series.append(sample[0], sample[1], sample[2], sample[3]);
+			}
+		}
+
+		assertArrayEquals(flatten(samples), flatten(read(1)));
+	}
+
+	@Test
+	public void roundTripsExtremes() throws IOException
+	{
+		long[][] samples = {
+				{0, Long.MAX_VALUE, Long.MIN_VALUE, 0},
+				{1, Long.MIN_VALUE, Long.MAX_VALUE, -1},
+				{2, 0, -1, Long.MAX_VALUE},
+				{3, Long.MAX_VALUE, 1, Long.MIN_VALUE},
+		};
+
+		try (InventoryTotalTickSeries series = InventoryTotalTickSeries.open(file, 1))
+		{
+			for (long[] sample: samples)
+			{
+				series.append(sample[0], sample[1], sample[2], sample[3]);
+			}
+		}
+
+		assertArrayEquals(flatten(samples), flatten(read(1)));
+	}
+
+	@Test
+	public void appendsRunsToOneFile() throws IOException
+	{
+		try (InventoryTotalTickSeries series = InventoryTotalTickSeries.open(file, 1))
+		{
+			for (int i = 0; i < 300; i++)
+			{
+				series.append(i, i * 10, i * 5, 1);
+			}
+		}
+
+		try (InventoryTotalTickSeries series = InventoryTotalTickSeries.open(file, 2))
+		{
+			for (int i = 0; i < 10; i++)
+			{
+				series.append(i, -i, 0, 2);
+			}
+		}
+
+		assertEquals(300, read(1).length);
+		assertEquals(10, read(2).length);
+		assertEquals(-9, read(2)[9][1]);
+		assertEquals(0, read(3).length);
+	}
+
+	@Test
+	public void ignoresWritesPastTheEnd() throws IOException
+	{
+		try (InventoryTotalTickSeries series = InventoryTotalTickSeries.open(file, 1))
+		{
+			series.append(1, 1, 1, 1);
+		}
+
+		// a block torn by a crash, the header still ends before it
+		try (RandomAccessFile out = new RandomAccessFile(file, "rw"))
+		{
+			out.seek(out.length());
+			out.writeInt(1000);
+			out.writeLong(1);
+		}
+
+		assertEquals(1, read(1).length);
+
+		try (InventoryTotalTickSeries series = InventoryTotalTickSeries.open(file, 1))
+		{
+			series.append(2, 2, 2, 2);
+		}
+
+		assertEquals(2, read(1).length);
+	}
+
+	@Test
+	public void trimsTheOldestRuns() throws IOException
+	{
+		// incompressible samples, so each run takes a few megabytes
+		Random random = new Random(3);
+		int runCount = 8;
+		for (int run = 1; run <= runCount; run++)
+		{
+			InventoryTotalTickSeries.trim(file);
+			try (InventoryTotalTickSeries series = InventoryTotalTickSeries.open(file, run))
+			{
+				for (int i = 0; i < 100_000; i++)
+				{
+					series.append(i, random.nextLong(), random.nextLong(), random.nextInt());
+				}
+			}
+		}
+
+		InventoryTotalTickSeries.trim(file);
+
+		assertTrue(file.length() <= InventoryTotalTickSeries.MAX_FILE_BYTES);
+		assertEquals(0, read(1).length);
+		assertEquals(100_000, read(runCount).length);
+
+		// runs are kept whole or not at all
+		for (int run = 1; run <= runCount; run++)
+		{
+			int length = read(run).length;
+			assertTrue(length == 0 || length == 100_000);
+		}
+	}
+
+	private long[][] read(long runStartTime) throws IOException
+	{
+		List<long[]> samples = new ArrayList<>();
+		InventoryTotalTickSeries.read(file, runStartTime, (tick, gp, gpHA, qty) -> samples.add(new long[]{tick, gp, gpHA, qty}));
+		return samples.toArray(new long[0][]);
+	}
+
+	private static long[] flatten(long[][] samples)
+	{
+		long[] flat = new long[samples.length * 4];
+		for (int i = 0; i < samples.length; i++)
+		{
+			System.arraycopy(samples[i], 0, flat, i * 4, 4);
+		}
+		return flat;
+	}
+}
@@ -0,0 +1,143 @@
+package com.ericversteeg;
+
+import net.runelite.api.Item;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InventoryTotalValuationEngineTest
+{
+	private static final int SHARK = 385;
+	private static final int NOTED_SHARK = 386;
+	private static final int LOBSTER = 379;
+
+	private InventoryTotalItemProvider itemProvider;
+	private InventoryTotalValuationEngine engine;
+	private InventoryTotalRunData runData;
+	private int sharkPrice = 900;
+
+	@Before
+	public void setUp()
+	{
+		itemProvider = new InventoryTotalItemProvider()
+		{
+			@Override
+			public int getGePrice(int itemId)
+			{
+				return itemId == SHARK ? sharkPrice : 200;
+			}
+
+			@Override
+			public int getHaPrice(int itemId)
+			{
+				return 100;
+			}
+
+			@Override
+			public String getName(int itemId)
+			{
+				return itemId == LOBSTER ? "Lobster" : "Shark";
+			}
+
+			@Override
+			public int getUnnotedId(int itemId)
+			{
+				return itemId == NOTED_SHARK ? SHARK : itemId;
+			}
+		};
+		engine = new InventoryTotalValuationEngine(itemProvider);
+
+		runData = new InventoryTotalRunData();
+		engine.reset(runData);
+	}
+
+	@Test
+	public void addsChangedSlotsToTheTickDeltas()
+	{
+		engine.update(InventoryTotalValuationEngine.INVENTORY, new int[]{SHARK, LOBSTER, -1}, new int[]{1, 3, 0});
+
+		assertEquals(1, engine.getTickDeltas().get(SHARK));
+		assertEquals(3, engine.getTickDeltas().get(LOBSTER));
+		assertEquals(900 + 3 * 200, engine.getGp(InventoryTotalValuationEngine.INVENTORY));
+
+		engine.clearTickDeltas();
+
+		// a shark eaten, noted sharks picked up and the lobsters moved a slot
+		engine.update(InventoryTotalValuationEngine.INVENTORY, new int[]{-1, NOTED_SHARK, LOBSTER}, new int[]{0, 10, 3});
+
+		assertEquals(9, engine.getTickDeltas().get(SHARK));
+		// moved, not gained or lost
+		assertFalse(engine.getTickDeltas().containsKey(LOBSTER));
+		assertEquals(1, engine.getTickDeltas().size());
+		assertEquals(10, runData.itemQtys.get(SHARK));
+		assertEquals(10 * 900 + 3 * 200, engine.getGp(InventoryTotalValuationEngine.INVENTORY));
+
+		engine.clearTickDeltas();
+		engine.update(InventoryTotalValuationEngine.INVENTORY, new int[]{-1, NOTED_SHARK, LOBSTER}, new int[]{0, 10, 3});
+
+		assertTrue(engine.getTickDeltas().isEmpty());
+	}
+
+	@Test
+	public void resetClearsTheTickDeltas()
+	{
+		engine.update(InventoryTotalValuationEngine.EQUIPMENT, new int[]{SHARK}, new int[]{1});
+
+		engine.reset(runData);
+
+		assertTrue(engine.getTickDeltas().isEmpty());
+		assertTrue(runData.itemQtys.isEmpty());
+	}
+
+	@Test
+	public void keepsBankPricesOutOfTheRun()
+	{
+		engine.update(InventoryTotalValuationEngine.INVENTORY, new int[]{SHARK}, new int[]{1});
+
+		engine.updateBank(new Item[]{new Item(SHARK, 2), new Item(LOBSTER, 5)});
+
+		assertTrue(engine.isBankKnown());
+		assertEquals(2 * 900 + 5 * 200, engine.getBankGp());
+		assertEquals(7 * 100, engine.getBankGpHA());
+		assertTrue(runData.prices.hasGePrice(SHARK));
+		assertFalse(runData.prices.hasGePrice(LOBSTER));
+		assertFalse(runData.prices.hasHaPrice(LOBSTER));
+
+		engine.updateBank(new Item[]{new Item(SHARK, 2)});
+
+		assertEquals(2 * 900, engine.getBankGp());
+		assertEquals(2 * 100, engine.getBankGpHA());
+	}
+
+	@Test
+	public void revaluesChangedPricesInPlace()
+	{
+		runData.initialItemQtys.put(SHARK, 4);
+		engine.update(InventoryTotalValuationEngine.INVENTORY, new int[]{SHARK, NOTED_SHARK, LOBSTER}, new int[]{1, 5, 3});
+		engine.update(InventoryTotalValuationEngine.EQUIPMENT, new int[]{SHARK}, new int[]{1});
+		engine.updateBank(new Item[]{new Item(SHARK, 2), new Item(LOBSTER, 5)});
+
+		assertTrue(engine.getGePriceChanges(itemProvider).isEmpty());
+
+		sharkPrice = 1000;
+		InventoryTotalIntMap changes = engine.getGePriceChanges(itemProvider);
+
+		assertEquals(1, changes.size());
+		assertEquals(1000, changes.get(SHARK));
+
+		engine.clearTickDeltas();
+		assertEquals(4 * 100, engine.revalue(changes));
+
+		assertEquals(6 * 1000 + 3 * 200, engine.getGp(InventoryTotalValuationEngine.INVENTORY));
+		assertEquals(1000, engine.getGp(InventoryTotalValuationEngine.EQUIPMENT));
+		assertEquals(2 * 1000 + 5 * 200, engine.getBankGp());
+		assertEquals(1000, runData.prices.getGePrice(SHARK));
+		assertEquals(200, runData.prices.getGePrice(LOBSTER));
+		// a price change isn't a change in what's held
+		assertTrue(engine.getTickDeltas().isEmpty());
+		assertTrue(engine.getGePriceChanges(itemProvider).isEmpty());
+	}
+}
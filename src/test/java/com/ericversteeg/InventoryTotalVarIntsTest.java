@@ -0,0 +1,94 @@
+package com.ericversteeg;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+public class InventoryTotalVarIntsTest
+{
+	private static final int[] INTS = {
+			0, 1, -1, 63, -64, 64, -65, 127, 128, 16383, 16384, Integer.MAX_VALUE, Integer.MIN_VALUE,
+			Integer.MAX_VALUE - 1, Integer.MIN_VALUE + 1
+	};
+	private static final long[] LONGS = {
+			0, 1, -1, 127, 128, Integer.MAX_VALUE, Integer.MIN_VALUE, 1L << 35, -(1L << 35),
+			Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1
+	};
+
+	@Test
+	public void roundTripsInts() throws IOException
+	{
+		for (int value: INTS)
+		{
+			byte[] bytes = write(out -> InventoryTotalVarInts.writeVarInt(out, value));
+			assertEquals(value, InventoryTotalVarInts.readVarInt(input(bytes)));
+			assertEquals(value, InventoryTotalVarInts.readVarInt(ByteBuffer.wrap(bytes)));
+
+			byte[] signed = write(out -> InventoryTotalVarInts.writeSignedVarInt(out, value));
+			assertEquals(value, InventoryTotalVarInts.readSignedVarInt(input(signed)));
+			assertEquals(value, InventoryTotalVarInts.readSignedVarInt(ByteBuffer.wrap(signed)));
+		}
+	}
+
+	@Test
+	public void roundTripsLongs() throws IOException
+	{
+		for (long value: LONGS)
+		{
+			byte[] bytes = write(out -> InventoryTotalVarInts.writeVarLong(out, value));
+			assertEquals(value, InventoryTotalVarInts.readVarLong(input(bytes)));
+			assertEquals(value, InventoryTotalVarInts.readVarLong(ByteBuffer.wrap(bytes)));
+
+			byte[] signed = write(out -> InventoryTotalVarInts.writeSignedVarLong(out, value));
+			assertEquals(value, InventoryTotalVarInts.readSignedVarLong(input(signed)));
+			assertEquals(value, InventoryTotalVarInts.readSignedVarLong(ByteBuffer.wrap(signed)));
+		}
+	}
+
+	@Test
+	public void encodesSmallValuesShort() throws IOException
+	{
+		assertEquals(1, write(out -> InventoryTotalVarInts.writeVarInt(out, 127)).length);
+		assertEquals(2, write(out -> InventoryTotalVarInts.writeVarInt(out, 128)).length);
+		assertEquals(5, write(out -> InventoryTotalVarInts.writeVarInt(out, -1)).length);
+		assertEquals(10, write(out -> InventoryTotalVarInts.writeVarLong(out, -1)).length);
+
+		// zigzag keeps small negative values small
+		assertEquals(1, write(out -> InventoryTotalVarInts.writeSignedVarInt(out, -64)).length);
+		assertEquals(1, write(out -> InventoryTotalVarInts.writeSignedVarLong(out, -64)).length);
+		assertEquals(5, write(out -> InventoryTotalVarInts.writeSignedVarInt(out, Integer.MIN_VALUE)).length);
+		assertEquals(10, write(out -> InventoryTotalVarInts.writeSignedVarLong(out, Long.MIN_VALUE)).length);
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsOverlongInts() throws IOException
+	{
+		InventoryTotalVarInts.readVarInt(ByteBuffer.wrap(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0}));
+	}
+
+	private interface Writer
+	{
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	private static byte[] write(Writer writer) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		writer.write(out);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static DataInputStream input(byte[] bytes)
+	{
+		return new DataInputStream(new ByteArrayInputStream(bytes));
+	}
+}